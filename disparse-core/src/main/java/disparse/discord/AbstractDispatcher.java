@@ -4,17 +4,28 @@ import disparse.discord.manager.*;
 import disparse.discord.manager.provided.*;
 import disparse.parser.Command;
 import disparse.parser.CommandFlag;
+import disparse.parser.CommandUsage;
 import disparse.parser.dispatch.CommandRegistrar;
 import disparse.parser.reflection.Detector;
+import disparse.parser.reflection.MessageStrategy;
 import disparse.utils.Shlex;
 import disparse.utils.help.Help;
+import disparse.utils.help.HelpModel;
+import disparse.utils.help.HelpPage;
+import disparse.utils.help.HelpPageCache;
+import disparse.utils.help.HelpSession;
+import disparse.utils.help.HelpSessionStore;
 import disparse.utils.help.PageNumberOutOfBounds;
 import disparse.utils.help.PaginatedEntities;
 import disparse.utils.readme.ReadmeGeneration;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -29,13 +40,21 @@ public abstract class AbstractDispatcher<E, T> {
 
   private static final Logger logger = LoggerFactory.getLogger(AbstractDispatcher.class);
 
+  private static final EventContext.Key<String> GUILD = new EventContext.Key<>("guild");
+  private static final EventContext.Key<MemberAccessCache.Access> ACCESS =
+      new EventContext.Key<>("member access");
+
   protected PrefixManager<E, T> prefixManager;
   protected DescriptionManager<E, T> descriptionManager;
   protected PageLimitManager<E, T> pageLimitManager;
   protected CooldownManager cooldownManager;
   protected DisabledCommandManager disabledCommandManager;
   protected BaseEmbedManager<E, T> baseEmbedManager;
-  protected ExecutorService executorService;
+  protected ExecutionManager<E, T> executionManager;
+  protected MemberAccessCache memberAccessCache;
+  protected HelpPageCache helpPages;
+  protected HelpModel helpModel;
+  protected HelpSessionStore<T> helpSessions;
   protected Reflections reflections;
   protected CommandRegistrar<E, T> registrar;
   protected boolean respondToBots;
@@ -44,6 +63,10 @@ public abstract class AbstractDispatcher<E, T> {
 
   protected List<BiFunction<E, String, Boolean>> registeredMiddleware = new ArrayList<>();
 
+  // weakly keyed, so contexts of events that are dropped before they are dispatched are not kept
+  private final Map<E, EventContext> contexts = Collections.synchronizedMap(new WeakHashMap<>());
+  private final Map<Command, Long> permissionMasks = new ConcurrentHashMap<>();
+
   protected AbstractDispatcher(String prefix, int pageLimit, String description) {
     this.prefixManager = new InMemoryPrefixManager<>(prefix);
     this.pageLimitManager = new InMemoryPageLimitManager<>(pageLimit);
@@ -51,7 +74,10 @@ public abstract class AbstractDispatcher<E, T> {
     this.cooldownManager = new InMemoryCooldownManager();
     this.disabledCommandManager = new InMemoryDisabledCommandManager();
     this.baseEmbedManager = new SingleBaseEmbedManager<>(this::createBuilder);
-    this.executorService = Executors.newSingleThreadExecutor();
+    this.executionManager = new StripedExecutionManager<>(StripedExecutionManager.Key.CHANNEL);
+    this.memberAccessCache = new MemberAccessCache(Duration.ofMinutes(5), 10_000);
+    this.helpPages = new HelpPageCache(Duration.ofMinutes(10), 1_000);
+    this.helpSessions = null;
     this.reflections = this.defaultReflection(this.getClass());
     this.registrar = null;
     this.respondToBots = false;
@@ -60,24 +86,151 @@ public abstract class AbstractDispatcher<E, T> {
   }
 
   public void dispatch(E event) {
-    if (!respondToBots && this.isAuthorABot(event)) return;
+    List<String> args = this.commandArgs(event);
+    if (args == null) {
+      this.contexts.remove(event);
+      return;
+    }
+
+    this.enqueue(event, args);
+  }
+
+  /**
+   * Returns the arguments of a message that should be dispatched, or {@code null} if it is not a
+   * command or can be dropped straight away. This only runs cheap checks, so it is safe to call on
+   * the thread that received the event.
+   */
+  protected List<String> commandArgs(E event) {
+    if (!respondToBots && this.isAuthorABot(event)) return null;
 
     String raw = this.rawMessageContentFromEvent(event);
     String currentPrefix = this.prefixManager.prefixForGuild(event, this);
 
     if (!raw.startsWith(currentPrefix)) {
-      return;
+      return null;
     }
 
     String cleanedMessage = raw.substring(currentPrefix.length());
 
     if (cleanedMessage.isEmpty()) {
       logger.info("After removing the prefix, the message was empty.  Not continuing.");
-      return;
+      return null;
     }
 
     List<String> args = Shlex.shlex(cleanedMessage);
-    this.executorService.submit(() -> this.registrar.dispatch(args, this, event));
+    if (!this.registrar.canDispatch(args, this, event)) return null;
+
+    return args;
+  }
+
+  protected void enqueue(E event, List<String> args) {
+    try {
+      this.executionManager.execute(event, this, () -> this.registrar.dispatch(args, this, event));
+    } catch (RejectedExecutionException rejectedExecutionException) {
+      this.commandDropped(event);
+    }
+  }
+
+  /**
+   * Called for a command that the execution manager rejected or dropped, so it will never be
+   * dispatched. Releases everything held for its event, like {@link #dispatchComplete}.
+   */
+  public void commandDropped(E event) {
+    logger.warn(
+        "Dropping command in channel `{}`, it could not be queued", channelFromEvent(event));
+    this.dispatchComplete(event);
+  }
+
+  /**
+   * Where the registrar continues dispatching {@code event} after an asynchronous check or send,
+   * see {@link ExecutionManager#continuations}. A continuation the manager will not take, because a
+   * lane is full or it was shut down, runs on the calling thread instead, so an admitted command is
+   * always finished.
+   */
+  public Executor continuationsOf(E event) {
+    Executor executor = this.executionManager.continuations(event, this);
+    return task -> {
+      try {
+        executor.execute(task);
+      } catch (RejectedExecutionException rejectedExecutionException) {
+        task.run();
+      }
+    };
+  }
+
+  /**
+   * Called once the registrar is done with an event, including after a handler that runs
+   * asynchronously has completed. Adapters can override this to release anything held per event,
+   * but must call this implementation too.
+   */
+  public void dispatchComplete(E event) {
+    this.executionManager.completed(event, this);
+    this.contexts.remove(event);
+  }
+
+  /**
+   * The facts memoized for {@code event}, which are kept until {@link #dispatchComplete} is called
+   * for it.
+   */
+  public EventContext contextOf(E event) {
+    return this.contexts.computeIfAbsent(event, e -> new EventContext());
+  }
+
+  /** {@link #guildFromEvent}, worked out once per event. */
+  public String guildOf(E event) {
+    return this.contextOf(event).get(GUILD, () -> this.guildFromEvent(event));
+  }
+
+  /**
+   * The roles and permissions of the event's author, taken from the {@link MemberAccessCache} or
+   * else resolved with {@code resolve}. Returns {@code null} for events outside of a guild.
+   */
+  protected MemberAccessCache.Access memberAccess(
+      E event, Supplier<MemberAccessCache.Access> resolve) {
+    String guildId = this.guildOf(event);
+    if (guildId == null) return null;
+
+    return this.contextOf(event)
+        .get(
+            ACCESS,
+            () ->
+                this.memberAccessCache.get(
+                    guildId, this.identityFromEvent(event), this.channelFromEvent(event), resolve));
+  }
+
+  /**
+   * Called once for every command when the dispatcher is built, so adapters can precompute anything
+   * they need to check it. Adapters overriding this must call this implementation too.
+   */
+  protected void commandRegistered(Command command) {
+    if (command.getPerms().length > 0
+        && this.permissionConverter() != null
+        && this.permissionMask(command) == 0) {
+      logger.warn(
+          "None of the permissions required by `{}` exist in this library, it will not require any",
+          command.getCommandName());
+    }
+  }
+
+  /**
+   * Converts the permissions commands require into those of the adapter's library, or {@code null}
+   * if the adapter does not check permissions by mask.
+   */
+  protected PermissionEnumConverter<?> permissionConverter() {
+    return null;
+  }
+
+  /**
+   * The bits of the permissions {@code command} requires, see {@link PermissionEnumConverter#mask}.
+   * A mask of 0 means there is nothing to check, so the command is open to everyone.
+   */
+  protected long permissionMask(Command command) {
+    return this.permissionMasks.computeIfAbsent(
+        command,
+        c -> {
+          PermissionEnumConverter<?> converter = this.permissionConverter();
+          return converter == null ? 0L : converter.mask(c.getPerms());
+        });
   }
 
   public void help(
@@ -89,20 +242,84 @@ public abstract class AbstractDispatcher<E, T> {
     if (this.commandRolesNotMet(event, command) || this.commandIntentsNotMet(event, command))
       return;
 
-    if (!this.disabledCommandManager.commandAllowedInGuild(this.guildFromEvent(event), command))
-      return;
+    String guildId = this.guildOf(event);
+    if (!this.disabledCommandManager.commandAllowedInGuild(guildId, command)) return;
 
     if (!this.runMiddleware(event, command.getCommandName())) return;
 
-    T builder = this.baseEmbedManager.baseHelpEmbedForGuild(event, this);
-    setBuilderTitle(builder, Help.getTitle(command));
-    setBuilderDescription(builder, Help.getDescriptionUsage(command));
+    HelpModel.Entry entry = this.helpModel.get(command);
+    List<Command> allSubcommands =
+        entry != null ? entry.getSubcommands() : Help.findSubcommands(command, commands);
+    List<CommandFlag> sortedFlags = entry != null ? entry.getFlags() : Help.sortFlags(flags);
+
+    List<Command> subcommands =
+        allSubcommands.stream()
+            .filter(c -> !this.commandRolesNotMet(event, c) && !this.commandIntentsNotMet(event, c))
+            .collect(Collectors.toList());
+
+    int pageLimit = getPageLimit(event);
+    PaginatedEntities paginatedEntities;
+    try {
+      paginatedEntities = Help.paginate(subcommands, sortedFlags, pageNumber, pageLimit);
+    } catch (PageNumberOutOfBounds pageNumberOutOfBounds) {
+      sendMessage(event, pageNumberOutOfBounds.getMessage());
+      return;
+    }
+
+    String prefix = this.prefixManager.prefixForGuild(event, this);
+    String pagingHint = this.pagingHint(paginatedEntities);
+    BitSet visible = entry != null ? this.helpModel.visibility(subcommands) : null;
+    HelpSession.PageRenderer pages =
+        n -> {
+          PaginatedEntities entities = Help.paginate(subcommands, sortedFlags, n, pageLimit);
+          return this.helpPages.get(
+              guildId,
+              command.getCommandName(),
+              n,
+              pageLimit,
+              prefix,
+              visible,
+              () -> renderHelp(command, entry, entities, n, prefix, pagingHint));
+        };
+
+    HelpPage page =
+        this.helpPages.get(
+            guildId,
+            command.getCommandName(),
+            pageNumber,
+            pageLimit,
+            prefix,
+            visible,
+            () -> renderHelp(command, entry, paginatedEntities, pageNumber, prefix, pagingHint));
+
+    String title = entry != null ? entry.getTitle() : Help.getTitle(command);
+    String description =
+        entry != null ? entry.getDescriptionUsage() : Help.getDescriptionUsage(command);
+    sendHelp(
+        event,
+        paginatedEntities,
+        page,
+        pages,
+        (builder, p) -> {
+          setBuilderTitle(builder, title);
+          setBuilderDescription(builder, description);
+          addHelpPage(builder, p);
+          return builder;
+        });
+  }
+
+  private HelpPage renderHelp(
+      Command command,
+      HelpModel.Entry entry,
+      PaginatedEntities paginatedEntities,
+      int pageNumber,
+      String prefix,
+      String pagingHint) {
+    HelpPage.Builder page = HelpPage.builder();
 
-    if (command.getAliases().length > 0) {
-      String[] aliases = command.getAliases();
-      Arrays.sort(aliases, Comparator.comparingInt(String::length));
-      String aliasString = String.join(", ", aliases);
-      addField(builder, "Aliases", aliasString, false);
+    String aliases = entry != null ? entry.getAliases() : null;
+    if (aliases != null) {
+      page.field("Aliases", aliases, false);
     }
 
     if (!command.getCooldownDuration().isZero()) {
@@ -118,100 +335,194 @@ public abstract class AbstractDispatcher<E, T> {
           type = "Guild";
           break;
       }
-      addField(
-          builder,
-          type + " Cooldown Enabled",
-          humanReadableFormat(command.getCooldownDuration()),
-          false);
+      page.field(
+          type + " Cooldown Enabled", humanReadableFormat(command.getCooldownDuration()), false);
     }
 
     if (command.getUsageExamples().size() > 0 && pageNumber == 1) {
-      String prefix = this.prefixManager.prefixForGuild(event, this);
-      addField(builder, "USAGE", "---------------------", false);
-      command
-          .getUsageExamples()
-          .forEach(
-              usage -> {
-                String msg = usage.getUsage();
-                msg = "`" + prefix + command.getCommandName() + " " + msg + "`";
-                addField(builder, msg, usage.getDescription(), false);
-              });
-    }
-
-    List<Command> subcommands =
-        Help.findSubcommands(command, commands).stream()
-            .filter(c -> !this.commandRolesNotMet(event, c) && !this.commandIntentsNotMet(event, c))
-            .collect(Collectors.toList());
-
-    String currentlyViewing;
-    try {
-      PaginatedEntities paginatedEntities =
-          Help.paginate(subcommands, Help.sortFlags(flags), pageNumber, getPageLimit(event));
-      subcommands = paginatedEntities.getCommands();
-      flags = paginatedEntities.getFlags();
-      currentlyViewing = paginatedEntities.getCurrentlyViewing();
-    } catch (PageNumberOutOfBounds pageNumberOutOfBounds) {
-      sendMessage(event, pageNumberOutOfBounds.getMessage());
-      return;
+      page.field("USAGE", "---------------------", false);
+      for (CommandUsage usage : command.getUsageExamples()) {
+        String msg = "`" + prefix + command.getCommandName() + " " + usage.getUsage() + "`";
+        page.field(msg, usage.getDescription(), false);
+      }
     }
 
-    List<CommandFlag> sortedFlags = new ArrayList<>(flags);
+    List<Command> subcommands = paginatedEntities.getCommands();
+    List<CommandFlag> flags = paginatedEntities.getFlags();
 
     if (subcommands.size() > 0) {
-      addField(builder, "SUBCOMMANDS", "---------------------", false);
+      page.field("SUBCOMMANDS", "---------------------", false);
     }
 
-    addCommandsToEmbed(builder, subcommands);
+    page.commands(subcommands);
 
-    if (sortedFlags.size() > 0) {
-      addField(builder, "FLAGS", "--------", true);
+    if (flags.size() > 0) {
+      page.field("FLAGS", "--------", true);
     }
 
-    for (CommandFlag flag : sortedFlags) {
-      String flagName = Help.flagToUserFriendlyString(flag);
-      addField(builder, flagName, flag.getDescription(), false);
+    for (CommandFlag flag : flags) {
+      page.field(Help.flagToUserFriendlyString(flag), flag.getDescription(), false);
     }
 
-    addField(builder, currentlyViewing, "Use `-p | --page` to specify a page number", false);
-    sendEmbed(event, builder);
+    page.field(paginatedEntities.getCurrentlyViewing(), pagingHint, false);
+    return page.build();
   }
 
   public void allCommands(E event, Collection<Command> commands, int pageNumber) {
-    String guildId = guildFromEvent(event);
+    String guildId = guildOf(event);
 
-    Collection<Command> filteredCommands =
-        commands.stream()
+    List<Command> registered = this.helpModel.getCommands();
+    List<Command> sortedCommands =
+        commands.size() == registered.size() && commands.containsAll(registered)
+            ? registered
+            : Help.sortCommands(commands);
+
+    List<Command> filteredCommands =
+        sortedCommands.stream()
             .filter(c -> this.disabledCommandManager.commandAllowedInGuild(guildId, c))
             .filter(c -> !this.commandRolesNotMet(event, c) && !this.commandIntentsNotMet(event, c))
             .filter(c -> this.runMiddleware(event, c.getCommandName()))
             .collect(Collectors.toList());
 
-    T builder = this.baseEmbedManager.baseHelpEmbedForGuild(event, this);
-    String title = this.getDescription(event);
-    if (title == null || title.equals("")) {
-      title = "All Commands";
-    }
-    setBuilderTitle(builder, title);
-    setBuilderDescription(builder, "All registered commands");
+    String description = this.getDescription(event);
+    String title = description == null || description.equals("") ? "All Commands" : description;
 
-    String currentlyViewing;
+    int pageLimit = getPageLimit(event);
+    PaginatedEntities paginatedEntities;
     try {
-      PaginatedEntities paginatedEntities =
-          Help.paginate(
-              Help.sortCommands(filteredCommands), List.of(), pageNumber, getPageLimit(event));
-      commands = paginatedEntities.getCommands();
-      currentlyViewing = paginatedEntities.getCurrentlyViewing();
+      paginatedEntities = Help.paginate(filteredCommands, List.of(), pageNumber, pageLimit);
     } catch (PageNumberOutOfBounds pageNumberOutOfBounds) {
       sendMessage(event, pageNumberOutOfBounds.getMessage());
       return;
     }
 
-    List<Command> sortedCommands = new ArrayList<>(commands);
+    String pagingHint = this.pagingHint(paginatedEntities);
+    BitSet visible =
+        sortedCommands == registered ? this.helpModel.visibility(filteredCommands) : null;
+    HelpSession.PageRenderer pages =
+        n -> {
+          PaginatedEntities entities = Help.paginate(filteredCommands, List.of(), n, pageLimit);
+          return this.helpPages.get(
+              guildId,
+              null,
+              n,
+              pageLimit,
+              null,
+              visible,
+              () -> renderAllCommands(entities, pagingHint));
+        };
+
+    HelpPage page =
+        this.helpPages.get(
+            guildId,
+            null,
+            pageNumber,
+            pageLimit,
+            null,
+            visible,
+            () -> renderAllCommands(paginatedEntities, pagingHint));
+
+    sendHelp(
+        event,
+        paginatedEntities,
+        page,
+        pages,
+        (builder, p) -> {
+          setBuilderTitle(builder, title);
+          setBuilderDescription(builder, "All registered commands");
+          addHelpPage(builder, p);
+          return builder;
+        });
+  }
 
-    addCommandsToEmbed(builder, sortedCommands);
-    addField(builder, currentlyViewing, "Use `-p | --page` to specify a page number", false);
+  private HelpPage renderAllCommands(PaginatedEntities paginatedEntities, String pagingHint) {
+    return HelpPage.builder()
+        .commands(paginatedEntities.getCommands())
+        .field(paginatedEntities.getCurrentlyViewing(), pagingHint, false)
+        .build();
+  }
 
-    sendEmbed(event, builder);
+  /**
+   * How to get to the other pages of a listing: with reactions if it is paged through with them.
+   */
+  private String pagingHint(PaginatedEntities paginatedEntities) {
+    if (this.helpSessions != null && paginatedEntities.getTotalPages() > 1) {
+      return "React with "
+          + HelpSession.PREVIOUS_PAGE
+          + " or "
+          + HelpSession.NEXT_PAGE
+          + " to turn the page";
+    }
+    return "Use `-p | --page` to specify a page number";
+  }
+
+  /**
+   * Sends the first page of a help listing. If reaction pagination is enabled and there is more
+   * than one page, the rest of the listing is kept in a {@link HelpSession} so its other pages are
+   * only rendered when they are turned to. {@code fill} adds a rendered page to a base embed.
+   */
+  private void sendHelp(
+      E event,
+      PaginatedEntities paginatedEntities,
+      HelpPage page,
+      HelpSession.PageRenderer pages,
+      BiFunction<T, HelpPage, T> fill) {
+    T base = this.baseEmbedManager.baseHelpEmbedForGuild(event, this);
+    HelpSessionStore<T> sessions = this.helpSessions;
+    if (sessions == null || paginatedEntities.getTotalPages() < 2) {
+      sendEmbed(event, fill.apply(base, page));
+      return;
+    }
+
+    // the session keeps the base embed instead of the event, and fills a copy of it for each page
+    T builder = fill.apply(this.copyBuilder(base), page);
+    HelpSession<T> session =
+        new HelpSession<>(
+            this.identityFromEvent(event),
+            paginatedEntities,
+            builder,
+            pages,
+            p -> fill.apply(this.copyBuilder(base), p));
+    this.sendPagedEmbed(event, builder)
+        .thenAccept(
+            messageId -> {
+              if (messageId != null) {
+                sessions.put(messageId, session);
+              }
+            });
+  }
+
+  /**
+   * Sends a help page that can be paged through, reacting to it with {@link
+   * HelpSession#PREVIOUS_PAGE} and {@link HelpSession#NEXT_PAGE}, and completes with the id of the
+   * sent message. Adapters that cannot react to their own messages keep this default, which sends
+   * the page with {@link #sendEmbed} and completes with {@code null}, so no session is kept.
+   */
+  protected CompletionStage<String> sendPagedEmbed(E event, T builder) {
+    this.sendEmbed(event, builder);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Called by adapters when {@code userId} adds {@code reaction} to {@code messageId}. Returns the
+   * embed of the help page that was turned to, which the adapter should edit the message to show,
+   * or {@code null} if the reaction did not turn a page.
+   */
+  public T turnHelpPage(String messageId, String userId, String reaction) {
+    HelpSessionStore<T> sessions = this.helpSessions;
+    if (sessions == null) return null;
+
+    return sessions.turn(messageId, userId, reaction);
+  }
+
+  private void addHelpPage(T builder, HelpPage page) {
+    for (HelpPage.Part part : page.getParts()) {
+      if (part.isCommands()) {
+        addCommandsToEmbed(builder, part.getCommands());
+      } else {
+        addField(builder, part.getName(), part.getValue(), part.isInline());
+      }
+    }
   }
 
   public String getPrefix(E event) {
@@ -220,6 +531,7 @@ public abstract class AbstractDispatcher<E, T> {
 
   public void setPrefix(E event, String prefix) {
     this.prefixManager.setPrefixForGuild(event, this, prefix);
+    this.helpPages.invalidateGuild(this.guildOf(event));
   }
 
   public int getPageLimit(E event) {
@@ -228,6 +540,7 @@ public abstract class AbstractDispatcher<E, T> {
 
   public void setPageLimit(E event, int pageLimit) {
     this.pageLimitManager.setPageLimitForGuild(event, this, pageLimit);
+    this.helpPages.invalidateGuild(this.guildOf(event));
   }
 
   public String getDescription(E event) {
@@ -238,12 +551,20 @@ public abstract class AbstractDispatcher<E, T> {
     return this.cooldownManager;
   }
 
+  public ExecutionManager<E, T> getExecutionManager() {
+    return this.executionManager;
+  }
+
+  public MemberAccessCache getMemberAccessCache() {
+    return this.memberAccessCache;
+  }
+
   public void helpSubcommands(E event, String foundPrefix, Collection<Command> commands) {
     T builder = this.baseEmbedManager.baseHelpEmbedForGuild(event, this);
     setBuilderTitle(builder, foundPrefix + " | Subcommands");
     setBuilderDescription(builder, "All registered subcommands for " + foundPrefix);
 
-    String guildId = guildFromEvent(event);
+    String guildId = guildOf(event);
 
     List<Command> sortedCommands =
         commands.stream()
@@ -268,6 +589,18 @@ public abstract class AbstractDispatcher<E, T> {
     }
   }
 
+  /**
+   * Forgets everything held for a guild the bot has left: the roles and permissions of its members,
+   * its rendered help pages, and its {@code PER_GUILD} handlers.
+   */
+  public void guildRemoved(String guildId) {
+    this.memberAccessCache.invalidateGuild(guildId);
+    this.helpPages.invalidateGuild(guildId);
+    if (this.registrar != null) {
+      this.registrar.releaseGuild(guildId);
+    }
+  }
+
   public boolean runMiddleware(E event, String command) {
     if (this.registeredMiddleware.size() == 0) return true;
 
@@ -281,25 +614,23 @@ public abstract class AbstractDispatcher<E, T> {
   }
 
   public void disableCommand(E event, String commandName) {
-    Collection<Command> commands = this.registrar.getAllCommands();
-    Optional<Command> foundCommand =
-        commands.stream().filter(c -> c.getCommandName().equals(commandName)).findFirst();
-    String guildId = guildFromEvent(event);
+    Optional<Command> foundCommand = this.registrar.findCommand(commandName);
+    String guildId = guildOf(event);
 
     foundCommand.ifPresent(c -> this.disabledCommandManager.disableCommandForGuild(guildId, c));
+    this.helpPages.invalidateGuild(guildId);
   }
 
   public void enableCommand(E event, String commandName) {
-    Collection<Command> commands = this.registrar.getAllCommands();
-    Optional<Command> foundCommand =
-        commands.stream().filter(c -> c.getCommandName().equals(commandName)).findFirst();
-    String guildId = guildFromEvent(event);
+    Optional<Command> foundCommand = this.registrar.findCommand(commandName);
+    String guildId = guildOf(event);
 
     foundCommand.ifPresent(c -> this.disabledCommandManager.enableCommandForGuild(guildId, c));
+    this.helpPages.invalidateGuild(guildId);
   }
 
   public boolean isEnabledForGuild(E event, Command command) {
-    return this.disabledCommandManager.commandAllowedInGuild(guildFromEvent(event), command);
+    return this.disabledCommandManager.commandAllowedInGuild(guildOf(event), command);
   }
 
   public void autogenerateReadme() {
@@ -324,6 +655,9 @@ public abstract class AbstractDispatcher<E, T> {
 
   public abstract T createBuilder();
 
+  /** Returns a new builder with the same contents as {@code builder}, which is left as it is. */
+  public abstract T copyBuilder(T builder);
+
   public abstract void sendEmbed(E event, T builder);
 
   public abstract String identityFromEvent(E event);
@@ -344,6 +678,53 @@ public abstract class AbstractDispatcher<E, T> {
 
   public abstract void sendReact(E event, String value);
 
+  // Asynchronous variants of the checks and sends above, which the registrar composes. By default
+  // they run their synchronous counterpart and complete straight away. Adapters whose library has
+  // an async API can override them so nothing blocks and sends complete once Discord has answered.
+
+  public CompletionStage<Boolean> commandRolesNotMetAsync(E event, Command command) {
+    return CompletableFuture.completedFuture(this.commandRolesNotMet(event, command));
+  }
+
+  public CompletionStage<Boolean> commandIntentsNotMetAsync(E event, Command command) {
+    return CompletableFuture.completedFuture(this.commandIntentsNotMet(event, command));
+  }
+
+  public CompletionStage<Boolean> isSentFromChannelAsync(E event) {
+    return CompletableFuture.completedFuture(this.isSentFromChannel(event));
+  }
+
+  public CompletionStage<Boolean> isSentFromDMAsync(E event) {
+    return CompletableFuture.completedFuture(this.isSentFromDM(event));
+  }
+
+  public CompletionStage<Void> sendMessageAsync(E event, String message) {
+    this.sendMessage(event, message);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  public CompletionStage<Void> sendEmbedAsync(E event, T builder) {
+    this.sendEmbed(event, builder);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  public CompletionStage<Void> sendReactAsync(E event, String value) {
+    this.sendReact(event, value);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Returns a stage that completes with the response of a handler that runs asynchronously, or
+   * {@code null} if {@code result} is already the response. Adapters can override this to support
+   * the async types of their library.
+   */
+  public CompletionStage<?> toCompletionStage(Object result) {
+    if (result instanceof CompletionStage) {
+      return (CompletionStage<?>) result;
+    }
+    return null;
+  }
+
   public void sendMessages(E event, Collection<String> messages) {
     for (String message : messages) {
       sendMessage(event, message);
@@ -421,7 +802,51 @@ public abstract class AbstractDispatcher<E, T> {
     }
 
     public B withExecutorService(ExecutorService executorService) {
-      actualClass.executorService = executorService;
+      actualClass.executionManager = new ExecutorServiceExecutionManager<>(executorService);
+      return actualClassBuilder;
+    }
+
+    public B withStripedExecution(StripedExecutionManager.Key key, int laneCount, int queueDepth) {
+      actualClass.executionManager = new StripedExecutionManager<>(key, laneCount, queueDepth);
+      return actualClassBuilder;
+    }
+
+    public B withVirtualThreads() {
+      actualClass.executionManager = new VirtualThreadExecutionManager<>();
+      return actualClassBuilder;
+    }
+
+    /**
+     * Bounds the number of commands waiting on whichever execution manager has been configured so
+     * far, so this should be called after any other execution option.
+     */
+    public B withBoundedExecution(
+        int capacity,
+        BoundedExecutionManager.Policy policy,
+        int guildQuota,
+        MessageStrategy overloadStrategy) {
+      actualClass.executionManager =
+          new BoundedExecutionManager<>(
+              actualClass.executionManager, capacity, policy, guildQuota, overloadStrategy);
+      return actualClassBuilder;
+    }
+
+    public B withExecutionManager(ExecutionManager<E, T> executionManager) {
+      actualClass.executionManager = executionManager;
+      return actualClassBuilder;
+    }
+
+    public B withMemberAccessCache(Duration ttl, int maxSize) {
+      actualClass.memberAccessCache = new MemberAccessCache(ttl, maxSize);
+      return actualClassBuilder;
+    }
+
+    /**
+     * Sends help listings of more than one page once, and lets the member who asked page through
+     * them with reactions for up to {@code ttl} after they last turned a page.
+     */
+    public B withReactionPagination(Duration ttl, int maxSessions) {
+      actualClass.helpSessions = new HelpSessionStore<>(ttl, maxSessions);
       return actualClassBuilder;
     }
 
@@ -487,6 +912,10 @@ public abstract class AbstractDispatcher<E, T> {
 
     public A build() {
       actualClass.registrar = Detector.detect(actualClass.reflections);
+      actualClass.registrar.getAllCommands().forEach(actualClass::commandRegistered);
+      actualClass.helpModel =
+          HelpModel.of(
+              actualClass.registrar.getAllCommands(), actualClass.registrar.getCommandToFlags());
       if (actualClassBuilder.autogenerate) {
         actualClass.autogenerateReadme();
       }
@@ -0,0 +1,60 @@
+package disparse.discord;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Facts derived from a single event, such as its guild or the permissions of its author, worked out
+ * at most once however many commands they are checked against. A context lives until the dispatcher
+ * is done with its event, see {@link AbstractDispatcher#contextOf}.
+ */
+public class EventContext {
+
+  private static final Object NULL = new Object();
+
+  private final Map<Key<?>, Object> values = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the value of {@code key}, computing it with {@code compute} the first time it is asked
+   * for. {@code null} is remembered like any other value.
+   */
+  @SuppressWarnings("unchecked")
+  public <V> V get(Key<V> key, Supplier<V> compute) {
+    Object value = this.values.get(key);
+    if (value == null) {
+      // computed outside of the map, as computing one fact often needs another
+      value = compute.get();
+      Object existing = this.values.putIfAbsent(key, value == null ? NULL : value);
+      if (existing != null) {
+        value = existing;
+      }
+    }
+    return value == NULL ? null : (V) value;
+  }
+
+  /** Returns the value of {@code key} if it has been computed or put, or {@code null}. */
+  @SuppressWarnings("unchecked")
+  public <V> V getIfPresent(Key<V> key) {
+    Object value = this.values.get(key);
+    return value == NULL ? null : (V) value;
+  }
+
+  /** Sets the value of {@code key}, for facts that are worked out elsewhere. */
+  public <V> void put(Key<V> key, V value) {
+    this.values.put(key, value == null ? NULL : value);
+  }
+
+  public static final class Key<V> {
+    private final String name;
+
+    public Key(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package disparse.discord;
+
+import disparse.utils.cache.CoalescingCache;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * The role names and effective permissions of guild members, keyed by guild, member and channel, so
+ * that repeated commands from the same member skip resolving them. Entries expire after a time to
+ * live, and adapters invalidate them as role, member and channel updates arrive from the gateway.
+ */
+public class MemberAccessCache {
+
+  private final CoalescingCache<Key, Access> cache;
+
+  public MemberAccessCache(Duration ttl, int maxSize) {
+    this.cache = new CoalescingCache<>(ttl, maxSize);
+  }
+
+  public Access get(String guildId, String memberId, String channelId, Supplier<Access> resolve) {
+    return this.cache.get(new Key(guildId, memberId, channelId), key -> resolve.get());
+  }
+
+  public Access getIfPresent(String guildId, String memberId, String channelId) {
+    return this.cache.getIfPresent(new Key(guildId, memberId, channelId));
+  }
+
+  /**
+   * Like {@link #get}, for access that is resolved asynchronously. Concurrent lookups of the same
+   * member share a single resolution, which is cached unless the member is invalidated while it is
+   * being resolved.
+   */
+  public CompletionStage<Access> getAsync(
+      String guildId,
+      String memberId,
+      String channelId,
+      Supplier<? extends CompletionStage<Access>> resolve) {
+    return this.cache.getAsync(new Key(guildId, memberId, channelId), key -> resolve.get());
+  }
+
+  /** For when a role is created, changed or deleted, or the guild itself changes. */
+  public void invalidateGuild(String guildId) {
+    this.cache.invalidateIf(key -> key.guildId.equals(guildId));
+  }
+
+  /** For when a member's roles change or they leave the guild. */
+  public void invalidateMember(String guildId, String memberId) {
+    this.cache.invalidateIf(key -> key.guildId.equals(guildId) && key.memberId.equals(memberId));
+  }
+
+  /** For when a channel's permission overwrites change or it is deleted. */
+  public void invalidateChannel(String channelId) {
+    this.cache.invalidateIf(key -> Objects.equals(key.channelId, channelId));
+  }
+
+  public void invalidateAll() {
+    this.cache.invalidateAll();
+  }
+
+  public static class Access {
+    private final Set<String> roleNames;
+    private final boolean owner;
+    private final long permissions;
+
+    /**
+     * @param permissions the member's effective permissions, as the raw bitmask of the adapter's
+     *     library
+     */
+    public Access(Collection<String> roleNames, boolean owner, long permissions) {
+      this.roleNames = roleNames.stream().map(String::toLowerCase).collect(Collectors.toSet());
+      this.owner = owner;
+      this.permissions = permissions;
+    }
+
+    /** Whether the member has any of {@code roles}, where {@code owner} means the guild owner. */
+    public boolean hasAnyRole(String[] roles) {
+      for (String role : roles) {
+        if (this.owner && role.equalsIgnoreCase("owner")) return true;
+        if (this.roleNames.contains(role.toLowerCase())) return true;
+      }
+      return false;
+    }
+
+    public long getPermissions() {
+      return permissions;
+    }
+  }
+
+  private static class Key {
+    private final String guildId;
+    private final String memberId;
+    private final String channelId;
+
+    Key(String guildId, String memberId, String channelId) {
+      this.guildId = guildId;
+      this.memberId = memberId;
+      this.channelId = channelId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key key = (Key) o;
+      return guildId.equals(key.guildId)
+          && memberId.equals(key.memberId)
+          && Objects.equals(channelId, key.channelId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(guildId, memberId, channelId);
+    }
+  }
+}
@@ -4,4 +4,22 @@ public interface PermissionEnumConverter<R extends Enum<R>> {
   R into(AbstractPermission permission);
 
   AbstractPermission from(R permission);
+
+  /** The bit of {@code permission} in Discord's permission integers, or 0 if it has none. */
+  long bit(R permission);
+
+  /**
+   * The bits of every permission in {@code permissions} that has a counterpart in the library. This
+   * is 0 if none of them do.
+   */
+  default long mask(AbstractPermission[] permissions) {
+    long mask = 0;
+    for (AbstractPermission abstractPermission : permissions) {
+      R permission = into(abstractPermission);
+      if (permission == null) continue;
+
+      mask |= bit(permission);
+    }
+    return mask;
+  }
 }
@@ -0,0 +1,32 @@
+package disparse.discord.manager;
+
+import disparse.discord.AbstractDispatcher;
+import java.util.concurrent.Executor;
+
+public interface ExecutionManager<E, T> {
+
+  /**
+   * Runs {@code task}, which dispatches the command sent in {@code event}. A manager that will not
+   * run a command either throws a {@link java.util.concurrent.RejectedExecutionException} from this
+   * method, or calls {@link AbstractDispatcher#commandDropped} for it. A command that is rejected
+   * or dropped must never be run.
+   */
+  void execute(E event, AbstractDispatcher<E, T> dispatcher, Runnable task);
+
+  /**
+   * Where the dispatch of {@code event} continues after an asynchronous check or send completes, so
+   * that handlers run on the manager's threads rather than on those of the library that completed
+   * the check. Continuations belong to a command that was already admitted, so they are not counted
+   * against any limit. By default they run on whichever thread completed the stage.
+   */
+  default Executor continuations(E event, AbstractDispatcher<E, T> dispatcher) {
+    return Runnable::run;
+  }
+
+  /**
+   * Called once the command sent in {@code event} is complete, including any asynchronous checks,
+   * handler and sends, or once it has been dropped. Managers that order commands can start the next
+   * one here.
+   */
+  default void completed(E event, AbstractDispatcher<E, T> dispatcher) {}
+}
@@ -0,0 +1,228 @@
+package disparse.discord.manager.provided;
+
+import disparse.discord.AbstractDispatcher;
+import disparse.discord.manager.ExecutionManager;
+import disparse.parser.reflection.MessageStrategy;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits how many commands may be waiting to run on another {@link ExecutionManager}. Once the
+ * limit is reached either the incoming command or the longest waiting one is dropped, depending on
+ * the {@link Policy}. A per-guild quota can additionally stop a single guild from filling the whole
+ * queue. Commands that the delegate rejects are dropped the same way. Dropped commands are answered
+ * according to the overload {@link MessageStrategy}.
+ */
+public class BoundedExecutionManager<E, T> implements ExecutionManager<E, T> {
+
+  private static final Logger logger = LoggerFactory.getLogger(BoundedExecutionManager.class);
+  private static final String OVERLOAD_MESSAGE =
+      "The bot is receiving too many commands right now, please try again later.";
+  private static final String OVERLOAD_REACT = "\u23F3";
+
+  private final ExecutionManager<E, T> delegate;
+  private final int capacity;
+  private final Policy policy;
+  private final int guildQuota;
+  private final MessageStrategy overloadStrategy;
+  private final LinkedHashSet<Admission> waiting = new LinkedHashSet<>();
+  private final Map<String, Integer> waitingPerGuild = new HashMap<>();
+  private final AtomicLong dropped = new AtomicLong();
+
+  public BoundedExecutionManager(ExecutionManager<E, T> delegate, int capacity, Policy policy) {
+    this(delegate, capacity, policy, 0, MessageStrategy.SILENT);
+  }
+
+  /**
+   * @param delegate where admitted commands are run
+   * @param capacity how many commands may be waiting in total
+   * @param policy which command is dropped once {@code capacity} is reached
+   * @param guildQuota how many commands a single guild may have waiting, or 0 for no quota.
+   *     Commands over the quota are always the ones dropped.
+   * @param overloadStrategy how dropped commands are answered
+   */
+  public BoundedExecutionManager(
+      ExecutionManager<E, T> delegate,
+      int capacity,
+      Policy policy,
+      int guildQuota,
+      MessageStrategy overloadStrategy) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be at least 1");
+    }
+
+    this.delegate = delegate;
+    this.capacity = capacity;
+    this.policy = policy;
+    this.guildQuota = guildQuota;
+    this.overloadStrategy = overloadStrategy;
+  }
+
+  @Override
+  public void execute(E event, AbstractDispatcher<E, T> dispatcher, Runnable task) {
+    Admission admission = new Admission(event, dispatcher.guildOf(event), task);
+    Admission evicted = null;
+
+    synchronized (this) {
+      if (this.overQuota(admission.guildId)) {
+        evicted = admission;
+      } else if (this.waiting.size() >= this.capacity) {
+        if (this.policy == Policy.DROP_OLDEST) {
+          evicted = this.evictOldest();
+        } else {
+          evicted = admission;
+        }
+      }
+
+      if (evicted != admission) {
+        this.waiting.add(admission);
+        this.waitingPerGuild.merge(guildKey(admission.guildId), 1, Integer::sum);
+      }
+    }
+
+    if (evicted != null) {
+      this.overloaded(evicted, dispatcher);
+    }
+
+    if (evicted == admission) {
+      return;
+    }
+
+    try {
+      this.delegate.execute(event, dispatcher, admission);
+    } catch (RejectedExecutionException rejectedExecutionException) {
+      if (this.withdraw(admission)) {
+        this.overloaded(admission, dispatcher);
+      }
+    } catch (RuntimeException exec) {
+      this.withdraw(admission);
+      throw exec;
+    }
+  }
+
+  @Override
+  public Executor continuations(E event, AbstractDispatcher<E, T> dispatcher) {
+    return this.delegate.continuations(event, dispatcher);
+  }
+
+  @Override
+  public void completed(E event, AbstractDispatcher<E, T> dispatcher) {
+    this.delegate.completed(event, dispatcher);
+  }
+
+  /**
+   * Gives up the place of an admission that the delegate will never run. Returns false if it has
+   * already started running or been evicted.
+   */
+  private boolean withdraw(Admission admission) {
+    if (!admission.claim()) {
+      return false;
+    }
+
+    synchronized (this) {
+      this.waiting.remove(admission);
+      this.release(admission);
+    }
+    return true;
+  }
+
+  /** How many commands are currently waiting to run. */
+  public synchronized int queueDepth() {
+    return this.waiting.size();
+  }
+
+  /** How many commands have been dropped since this manager was created. */
+  public long droppedCount() {
+    return this.dropped.get();
+  }
+
+  private boolean overQuota(String guildId) {
+    return this.guildQuota > 0
+        && guildId != null
+        && this.waitingPerGuild.getOrDefault(guildKey(guildId), 0) >= this.guildQuota;
+  }
+
+  private Admission evictOldest() {
+    Iterator<Admission> iterator = this.waiting.iterator();
+    while (iterator.hasNext()) {
+      Admission oldest = iterator.next();
+      iterator.remove();
+      if (oldest.claim()) {
+        this.release(oldest);
+        return oldest;
+      }
+    }
+    return null;
+  }
+
+  private void release(Admission admission) {
+    this.waitingPerGuild.computeIfPresent(
+        guildKey(admission.guildId), (guildId, count) -> count > 1 ? count - 1 : null);
+  }
+
+  private void overloaded(Admission admission, AbstractDispatcher<E, T> dispatcher) {
+    this.dropped.incrementAndGet();
+    logger.warn("Dropping command for guild `{}`, the dispatch queue is full", admission.guildId);
+
+    switch (this.overloadStrategy) {
+      case MESSAGE:
+        dispatcher.sendMessage(admission.event, OVERLOAD_MESSAGE);
+        break;
+      case REACT:
+        dispatcher.sendReact(admission.event, OVERLOAD_REACT);
+        break;
+    }
+
+    dispatcher.commandDropped(admission.event);
+  }
+
+  private static String guildKey(String guildId) {
+    return guildId == null ? "" : guildId;
+  }
+
+  public enum Policy {
+    /** Incoming commands are dropped while the queue is full. */
+    REJECT_NEWEST,
+    /** The command that has been waiting the longest is dropped to make room. */
+    DROP_OLDEST
+  }
+
+  private class Admission implements Runnable {
+    private final E event;
+    private final String guildId;
+    private final Runnable task;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    Admission(E event, String guildId, Runnable task) {
+      this.event = event;
+      this.guildId = guildId;
+      this.task = task;
+    }
+
+    boolean claim() {
+      return this.claimed.compareAndSet(false, true);
+    }
+
+    @Override
+    public void run() {
+      if (!this.claim()) {
+        return;
+      }
+
+      synchronized (BoundedExecutionManager.this) {
+        waiting.remove(this);
+        release(this);
+      }
+
+      this.task.run();
+    }
+  }
+}
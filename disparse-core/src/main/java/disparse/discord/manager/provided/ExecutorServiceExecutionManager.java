@@ -0,0 +1,25 @@
+package disparse.discord.manager.provided;
+
+import disparse.discord.AbstractDispatcher;
+import disparse.discord.manager.ExecutionManager;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+public class ExecutorServiceExecutionManager<E, T> implements ExecutionManager<E, T> {
+
+  private final ExecutorService executorService;
+
+  public ExecutorServiceExecutionManager(ExecutorService executorService) {
+    this.executorService = executorService;
+  }
+
+  @Override
+  public void execute(E event, AbstractDispatcher<E, T> dispatcher, Runnable task) {
+    this.executorService.submit(task);
+  }
+
+  @Override
+  public Executor continuations(E event, AbstractDispatcher<E, T> dispatcher) {
+    return this.executorService;
+  }
+}
@@ -3,24 +3,29 @@ package disparse.discord.manager.provided;
 import disparse.discord.manager.DisabledCommandManager;
 import disparse.parser.Command;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class InMemoryDisabledCommandManager implements DisabledCommandManager {
 
-  private final Map<String, Set<Command>> guildToCommand = new HashMap<>();
+  // read from the event thread before dispatch, so it must be safe to share between threads
+  private final Map<String, Set<Command>> guildToCommand = new ConcurrentHashMap<>();
 
   @Override
   public boolean commandAllowedInGuild(String guildId, Command command) {
-    return !guildToCommand.getOrDefault(guildId, Collections.emptySet()).contains(command);
+    return !guildToCommand.getOrDefault(key(guildId), Collections.emptySet()).contains(command);
   }
 
   @Override
   public void disableCommandForGuild(String guildId, Command command) {
-    guildToCommand.putIfAbsent(guildId, new HashSet<>());
-    guildToCommand.get(guildId).add(command);
+    guildToCommand.computeIfAbsent(key(guildId), k -> ConcurrentHashMap.newKeySet()).add(command);
   }
 
   @Override
   public void enableCommandForGuild(String guildId, Command command) {
-    guildToCommand.getOrDefault(guildId, Collections.emptySet()).remove(command);
+    guildToCommand.getOrDefault(key(guildId), Collections.emptySet()).remove(command);
+  }
+
+  private static String key(String guildId) {
+    return guildId == null ? "" : guildId;
   }
 }
@@ -15,7 +15,7 @@ public class InMemoryPageLimitManager<E, T> implements PageLimitManager<E, T> {
 
   @Override
   public int pageLimitForGuild(E event, AbstractDispatcher<E, T> dispatcher) {
-    String guildId = dispatcher.guildFromEvent(event);
+    String guildId = dispatcher.guildOf(event);
 
     if (guildId == null) return this.defaultPageLimit;
 
@@ -24,7 +24,7 @@ public class InMemoryPageLimitManager<E, T> implements PageLimitManager<E, T> {
 
   @Override
   public void setPageLimitForGuild(E event, AbstractDispatcher<E, T> dispatcher, int pageLimit) {
-    String guildId = dispatcher.guildFromEvent(event);
+    String guildId = dispatcher.guildOf(event);
 
     if (guildId == null) return;
 
@@ -15,7 +15,7 @@ public class InMemoryPrefixManager<E, T> implements PrefixManager<E, T> {
 
   @Override
   public String prefixForGuild(E event, AbstractDispatcher<E, T> dispatcher) {
-    String guildId = dispatcher.guildFromEvent(event);
+    String guildId = dispatcher.guildOf(event);
 
     if (guildId == null) return defaultPrefix;
 
@@ -24,7 +24,7 @@ public class InMemoryPrefixManager<E, T> implements PrefixManager<E, T> {
 
   @Override
   public void setPrefixForGuild(E event, AbstractDispatcher<E, T> dispatcher, String prefix) {
-    String guildId = dispatcher.guildFromEvent(event);
+    String guildId = dispatcher.guildOf(event);
 
     if (guildId == null) return;
 
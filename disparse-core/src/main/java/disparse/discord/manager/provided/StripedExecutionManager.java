@@ -0,0 +1,210 @@
+package disparse.discord.manager.provided;
+
+import disparse.discord.AbstractDispatcher;
+import disparse.discord.manager.ExecutionManager;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs commands on a fixed number of serial lanes, picking the lane by hashing the channel or guild
+ * an event came from. Commands from the same channel or guild run one after the other, in the order
+ * they were received: the next one only starts once the previous one is {@link #completed}, even if
+ * its checks or handler complete asynchronously. Different channels or guilds are spread across the
+ * lanes and run in parallel. A command that arrives while its lane is full is rejected, see {@link
+ * ExecutionManager#execute}.
+ */
+public class StripedExecutionManager<E, T> implements ExecutionManager<E, T> {
+
+  private static final Logger logger = LoggerFactory.getLogger(StripedExecutionManager.class);
+  private static final AtomicInteger poolCount = new AtomicInteger();
+  private static final int DEFAULT_QUEUE_DEPTH = 1_000;
+
+  private final Key key;
+  private final int queueDepth;
+  private final ExecutorService[] lanes;
+  private final AtomicInteger[] waiting;
+  private final Map<String, Stripe> stripes = new HashMap<>();
+
+  public StripedExecutionManager(Key key) {
+    this(key, Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_DEPTH);
+  }
+
+  /**
+   * @param key what commands are ordered by
+   * @param laneCount how many commands may run at the same time
+   * @param queueDepth how many commands may wait on a single lane before new ones are rejected
+   */
+  public StripedExecutionManager(Key key, int laneCount, int queueDepth) {
+    if (laneCount < 1) {
+      throw new IllegalArgumentException("laneCount must be at least 1");
+    }
+    if (queueDepth < 1) {
+      throw new IllegalArgumentException("queueDepth must be at least 1");
+    }
+
+    this.key = key;
+    this.queueDepth = queueDepth;
+    this.lanes = new ExecutorService[laneCount];
+    this.waiting = new AtomicInteger[laneCount];
+
+    int pool = poolCount.incrementAndGet();
+    for (int i = 0; i < laneCount; i++) {
+      String name = "disparse-" + pool + "-lane-" + i;
+      // waiting commands are counted against queueDepth, continuations of running ones are not
+      this.lanes[i] = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, name));
+      this.waiting[i] = new AtomicInteger();
+    }
+  }
+
+  @Override
+  public void execute(E event, AbstractDispatcher<E, T> dispatcher, Runnable task) {
+    String stripe = this.stripeOf(event, dispatcher);
+    int lane = this.laneOf(stripe);
+    if (this.waiting[lane].incrementAndGet() > this.queueDepth) {
+      this.waiting[lane].decrementAndGet();
+      logger.warn("Rejecting command for `{}`, lane {} is full", stripe, lane);
+      throw new RejectedExecutionException("Lane " + lane + " is full");
+    }
+
+    Queued queued = new Queued(event, lane, task);
+    boolean start;
+    synchronized (this.stripes) {
+      Stripe waitingOn = this.stripes.computeIfAbsent(stripe, s -> new Stripe());
+      start = waitingOn.running == null;
+      if (start) {
+        waitingOn.running = queued;
+      } else {
+        waitingOn.queued.add(queued);
+      }
+    }
+
+    if (start) {
+      try {
+        this.start(queued);
+      } catch (RejectedExecutionException rejectedExecutionException) {
+        synchronized (this.stripes) {
+          this.stripes.remove(stripe);
+        }
+        throw rejectedExecutionException;
+      }
+    }
+  }
+
+  /** Continuations run on the lane of their command, while it holds its channel or guild. */
+  @Override
+  public Executor continuations(E event, AbstractDispatcher<E, T> dispatcher) {
+    return this.lanes[this.laneOf(this.stripeOf(event, dispatcher))];
+  }
+
+  /**
+   * Starts the next command of the channel or guild of {@code event}. A command that was dropped
+   * while it was waiting is forgotten instead, as it will never run.
+   */
+  @Override
+  public void completed(E event, AbstractDispatcher<E, T> dispatcher) {
+    String stripe = this.stripeOf(event, dispatcher);
+    Queued next = null;
+    synchronized (this.stripes) {
+      Stripe completedOn = this.stripes.get(stripe);
+      if (completedOn == null) return;
+
+      if (completedOn.running != null && completedOn.running.event == event) {
+        next = completedOn.next();
+      } else {
+        Iterator<Queued> iterator = completedOn.queued.iterator();
+        while (iterator.hasNext()) {
+          Queued dropped = iterator.next();
+          if (dropped.event == event) {
+            iterator.remove();
+            this.waiting[dropped.lane].decrementAndGet();
+            break;
+          }
+        }
+      }
+
+      if (completedOn.running == null) {
+        this.stripes.remove(stripe);
+      }
+    }
+
+    if (next != null) {
+      try {
+        this.start(next);
+      } catch (RejectedExecutionException rejectedExecutionException) {
+        logger.warn("Dropping the commands waiting for `{}`, the lanes are shut down", stripe);
+        synchronized (this.stripes) {
+          this.stripes.remove(stripe);
+        }
+      }
+    }
+  }
+
+  private void start(Queued queued) {
+    try {
+      this.lanes[queued.lane].execute(
+          () -> {
+            this.waiting[queued.lane].decrementAndGet();
+            queued.task.run();
+          });
+    } catch (RejectedExecutionException rejectedExecutionException) {
+      this.waiting[queued.lane].decrementAndGet();
+      throw rejectedExecutionException;
+    }
+  }
+
+  private String stripeOf(E event, AbstractDispatcher<E, T> dispatcher) {
+    String stripe = null;
+    if (this.key == Key.GUILD) {
+      stripe = dispatcher.guildOf(event);
+    }
+    if (stripe == null) {
+      stripe = dispatcher.channelFromEvent(event);
+    }
+    return stripe;
+  }
+
+  private int laneOf(String stripe) {
+    return Math.floorMod(Objects.hashCode(stripe), this.lanes.length);
+  }
+
+  public enum Key {
+    /** Commands are ordered per channel. */
+    CHANNEL,
+    /** Commands are ordered per guild, and per channel for direct messages. */
+    GUILD
+  }
+
+  /** The command of a channel or guild that is running, and those waiting behind it. */
+  private class Stripe {
+    private final Deque<Queued> queued = new ArrayDeque<>();
+    private Queued running;
+
+    Queued next() {
+      this.running = this.queued.poll();
+      return this.running;
+    }
+  }
+
+  private class Queued {
+    private final E event;
+    private final int lane;
+    private final Runnable task;
+
+    Queued(E event, int lane, Runnable task) {
+      this.event = event;
+      this.lane = lane;
+      this.task = task;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package disparse.discord.manager.provided;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs every command on its own virtual thread, so handlers that block on I/O cost next to nothing
+ * while they wait. On runtimes without virtual threads this falls back to a cached thread pool.
+ * Commands are not ordered relative to each other.
+ */
+public class VirtualThreadExecutionManager<E, T> extends ExecutorServiceExecutionManager<E, T> {
+
+  private static final Logger logger = LoggerFactory.getLogger(VirtualThreadExecutionManager.class);
+
+  public VirtualThreadExecutionManager() {
+    super(createExecutorService());
+  }
+
+  /**
+   * Whether this runtime can create virtual threads. On Java 19 and 20 they are a preview feature,
+   * so the factory method exists but fails unless preview features are enabled, which is why this
+   * creates an executor rather than only looking for the method.
+   */
+  public static boolean isSupported() {
+    ExecutorService executorService = newVirtualThreadExecutor();
+    if (executorService == null) {
+      return false;
+    }
+    executorService.shutdown();
+    return true;
+  }
+
+  private static ExecutorService createExecutorService() {
+    ExecutorService executorService = newVirtualThreadExecutor();
+    if (executorService != null) {
+      return executorService;
+    }
+
+    logger.info("Virtual threads are not supported by this runtime, using a cached thread pool");
+    return Executors.newCachedThreadPool();
+  }
+
+  private static ExecutorService newVirtualThreadExecutor() {
+    Method factory = virtualThreadFactory();
+    if (factory == null) {
+      return null;
+    }
+
+    try {
+      return (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException exec) {
+      logger.debug("Could not create a virtual thread executor", exec);
+      return null;
+    }
+  }
+
+  private static Method virtualThreadFactory() {
+    try {
+      return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (NoSuchMethodException noSuchMethodException) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,185 @@
+package disparse.parser;
+
+import java.util.*;
+
+/**
+ * A trie over the dot-separated segments of command names, so that {@code foo.bar.baz} is stored as
+ * the path {@code foo -> bar -> baz}. Incoming arguments are walked token by token, which lets the
+ * longest matching command and any prefix matched commands be found without joining arguments back
+ * together.
+ */
+public class CommandTrie {
+
+  private static final Comparator<Command> BY_NAME =
+      Comparator.comparing(cmd -> cmd.getCommandName().toLowerCase());
+
+  private final Node root = new Node();
+
+  public void insert(Command command) {
+    Node node = this.root;
+    node.subcommands = null;
+    for (String segment : command.getCommandName().split("\\.", -1)) {
+      node = node.children.computeIfAbsent(segment, s -> new Node());
+      node.subcommands = null;
+    }
+
+    if (node.command == null) {
+      node.command = command;
+    }
+  }
+
+  /**
+   * Finds the command matching the most leading tokens of {@code args}. A single token may itself
+   * contain dots, such as {@code foo.bar}, but it is only ever matched as a whole.
+   */
+  public Match longestMatch(List<String> args) {
+    Node node = this.root;
+    Command found = null;
+    int consumed = 0;
+
+    for (int i = 0; i < args.size(); i++) {
+      node = descend(node, args.get(i));
+      if (node == null) break;
+
+      if (node.command != null) {
+        found = node.command;
+        consumed = i + 1;
+      }
+    }
+
+    return found == null ? null : new Match(found, consumed);
+  }
+
+  /**
+   * Finds every command whose name starts with the longest prefix of {@code args} that matches
+   * anything at all. The last token of the prefix may be partial, so {@code foo ba} will match
+   * {@code foo.bar} and {@code foo.baz}.
+   */
+  public Prefixes prefixes(List<String> args) {
+    Node[] path = new Node[args.size()];
+    Node node = this.root;
+    int depth = 0;
+
+    while (depth < args.size() && node != null) {
+      path[depth] = node;
+      node = descend(node, args.get(depth));
+      depth++;
+    }
+
+    for (int i = depth; i > 0; i--) {
+      List<Command> commands = new ArrayList<>();
+      collectPrefixed(path[i - 1], args.get(i - 1), commands);
+
+      if (commands.size() > 0) {
+        return new Prefixes(i, commands);
+      }
+    }
+
+    return new Prefixes(0, new ArrayList<>());
+  }
+
+  /**
+   * Every command nested below {@code command}, sorted by name. The list is worked out once per
+   * command and then reused, so this only depends on the size of the command's own subtree.
+   */
+  public List<Command> subcommands(Command command) {
+    Node node = descend(this.root, command.getCommandName());
+    if (node == null) return List.of();
+
+    List<Command> subcommands = node.subcommands;
+    if (subcommands == null) {
+      List<Command> collected = new ArrayList<>();
+      for (Node child : node.children.values()) {
+        collectAll(child, collected);
+      }
+      collected.sort(BY_NAME);
+      subcommands = Collections.unmodifiableList(collected);
+      node.subcommands = subcommands;
+    }
+
+    return subcommands;
+  }
+
+  private static Node descend(Node node, String token) {
+    if (token.indexOf('.') < 0) {
+      return node.children.get(token);
+    }
+
+    for (String segment : token.split("\\.", -1)) {
+      node = node.children.get(segment);
+      if (node == null) return null;
+    }
+
+    return node;
+  }
+
+  private static void collectPrefixed(Node node, String token, List<Command> commands) {
+    int lastDot = token.lastIndexOf('.');
+    String partial = token;
+    if (lastDot >= 0) {
+      node = descend(node, token.substring(0, lastDot));
+      partial = token.substring(lastDot + 1);
+    }
+
+    if (node == null) return;
+
+    for (Map.Entry<String, Node> child : node.children.entrySet()) {
+      if (child.getKey().startsWith(partial)) {
+        collectAll(child.getValue(), commands);
+      }
+    }
+  }
+
+  private static void collectAll(Node node, List<Command> commands) {
+    if (node.command != null) {
+      commands.add(node.command);
+    }
+
+    for (Node child : node.children.values()) {
+      collectAll(child, commands);
+    }
+  }
+
+  private static class Node {
+    private final Map<String, Node> children = new HashMap<>();
+    private Command command;
+    // sorted commands below this node, cleared whenever a command is inserted beneath it
+    private volatile List<Command> subcommands;
+  }
+
+  public static class Match {
+    private final Command command;
+    private final int consumed;
+
+    Match(Command command, int consumed) {
+      this.command = command;
+      this.consumed = consumed;
+    }
+
+    public Command getCommand() {
+      return command;
+    }
+
+    public int getConsumed() {
+      return consumed;
+    }
+  }
+
+  public static class Prefixes {
+    private final int length;
+    private final List<Command> commands;
+
+    Prefixes(int length, List<Command> commands) {
+      this.length = length;
+      this.commands = commands;
+    }
+
+    public int getLength() {
+      return length;
+    }
+
+    public List<Command> getCommands() {
+      return commands;
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package disparse.parser;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The long and short option lookups for a single command. Tables are compiled once when flags are
+ * registered and never modified afterwards, so a single table can be shared by every thread that
+ * parses a message for its command.
+ */
+public final class OptionTable {
+
+  public static final OptionTable EMPTY = new OptionTable(Map.of(), Map.of());
+
+  private final Map<String, CommandFlag> longOptions;
+  private final Map<Character, CommandFlag> shortOptions;
+
+  private OptionTable(
+      final Map<String, CommandFlag> longOptions, final Map<Character, CommandFlag> shortOptions) {
+    this.longOptions = longOptions;
+    this.shortOptions = shortOptions;
+  }
+
+  public static OptionTable of(Collection<CommandFlag> flags) {
+    Map<String, CommandFlag> longOptions = new HashMap<>();
+    Map<Character, CommandFlag> shortOptions = new HashMap<>();
+
+    for (CommandFlag flag : flags) {
+      if (flag.getLongName() != null) {
+        longOptions.put(flag.getLongName(), flag);
+      }
+      if (flag.getShortName() != null) {
+        shortOptions.put(flag.getShortName(), flag);
+      }
+    }
+
+    return new OptionTable(
+        Collections.unmodifiableMap(longOptions), Collections.unmodifiableMap(shortOptions));
+  }
+
+  public CommandFlag byLongName(String longName) {
+    return this.longOptions.get(longName);
+  }
+
+  public CommandFlag byShortName(char shortName) {
+    return this.shortOptions.get(shortName);
+  }
+}
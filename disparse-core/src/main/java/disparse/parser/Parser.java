@@ -6,12 +6,21 @@ import java.util.*;
 
 public class Parser {
 
-  private final Map<Command, ? extends Collection<CommandFlag>> commandToFlags;
-  private final Map<String, CommandFlag> longOptionMap = new HashMap<>();
-  private final Map<Character, CommandFlag> shortOptionMap = new HashMap<>();
+  private final CommandTrie commandTrie;
+  private final Map<Command, OptionTable> optionTables;
 
   public Parser(final Map<Command, ? extends Collection<CommandFlag>> commandToFlags) {
-    this.commandToFlags = commandToFlags;
+    this(new CommandTrie(), new HashMap<>());
+    commandToFlags.forEach(
+        (command, flags) -> {
+          this.commandTrie.insert(command);
+          this.optionTables.put(command, OptionTable.of(flags));
+        });
+  }
+
+  public Parser(final CommandTrie commandTrie, final Map<Command, OptionTable> optionTables) {
+    this.commandTrie = commandTrie;
+    this.optionTables = optionTables;
   }
 
   private static void accept(
@@ -38,49 +47,24 @@ public class Parser {
 
   public ParsedOutput parse(List<String> args) {
     final Command commandName = this.findCommand(args);
+    final OptionTable optionTable = this.optionTables.getOrDefault(commandName, OptionTable.EMPTY);
 
-    fillShortAndLongOptions(commandName);
-
-    final Map<CommandFlag, Object> options = this.findOptions(args);
+    final Map<CommandFlag, Object> options = this.findOptions(args, optionTable);
 
     return new ParsedOutput(commandName, args, options);
   }
 
   private Command findCommand(List<String> args) {
-    List<String> currArgs = new ArrayList<>(args);
-    Optional<Command> commandName = Optional.empty();
-    int skip = 0;
-    while (currArgs.size() > 0) {
-      Command possibleCommand = new Command(String.join(".", currArgs), "");
-      if (this.commandToFlags.containsKey(possibleCommand)) {
-        commandName = Optional.of(possibleCommand);
-        skip = currArgs.size();
-        break;
-      } else {
-        currArgs.remove(currArgs.size() - 1);
-      }
+    CommandTrie.Match match = this.commandTrie.longestMatch(args);
+    if (match == null) {
+      throw new NoCommandNameFound("A valid command was not found!");
     }
-    int i = 0;
-    for (Iterator<String> iter = args.iterator(); iter.hasNext(); ) {
-      if (i < skip) {
-        iter.next();
-        iter.remove();
-        i++;
-      } else {
-        break;
-      }
-    }
-    return commandName.orElseThrow(() -> new NoCommandNameFound("A valid command was not found!"));
-  }
 
-  private void fillShortAndLongOptions(Command commandName) {
-    for (CommandFlag flag : this.commandToFlags.get(commandName)) {
-      this.longOptionMap.put(flag.getLongName(), flag);
-      this.shortOptionMap.put(flag.getShortName(), flag);
-    }
+    args.subList(0, match.getConsumed()).clear();
+    return match.getCommand();
   }
 
-  private Map<CommandFlag, Object> findOptions(List<String> args) {
+  private Map<CommandFlag, Object> findOptions(List<String> args, OptionTable optionTable) {
     final Map<CommandFlag, Object> optionMap = new HashMap<>();
     final Iterator<String> iter = args.iterator();
 
@@ -90,13 +74,13 @@ public class Parser {
 
       if (currArg.startsWith("--")) {
         final String currOpt = currArg.substring(2);
-        flag = this.longOptionMap.getOrDefault(currOpt, null);
+        flag = optionTable.byLongName(currOpt);
       } else if (currArg.startsWith("-")) {
         final String currOpt = currArg.substring(1);
         if (currOpt.isEmpty()) { // this was a standalone "-", perhaps it was just an argument?
           continue;
         }
-        flag = this.shortOptionMap.getOrDefault(currOpt.charAt(0), null);
+        flag = optionTable.byShortName(currOpt.charAt(0));
       }
 
       if (flag != null) {
@@ -1,18 +1,23 @@
 package disparse.parser.dispatch;
 
-import disparse.discord.AbstractDiscordRequest;
 import disparse.discord.AbstractDiscordResponse;
 import disparse.discord.AbstractDispatcher;
 import disparse.discord.manager.CooldownManager;
 import disparse.parser.*;
+import disparse.parser.exceptions.IncorrectOption;
 import disparse.parser.exceptions.NoCommandNameFound;
 import disparse.parser.exceptions.OptionRequired;
+import disparse.parser.exceptions.OptionRequiresInt;
 import disparse.parser.exceptions.OptionRequiresValue;
 import disparse.parser.reflection.*;
 import java.lang.reflect.*;
 import java.time.Duration;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,18 +34,51 @@ public class CommandRegistrar<E, T> {
           "page", 'p', Types.INT, false, "select a specific page to showcase", Map.of());
   private final HashMap<Command, Method> commandTable = new HashMap<>();
   private final HashMap<Command, Set<CommandFlag>> commandToFlags = new HashMap<>();
+  private final HashMap<String, Command> commandIndex = new HashMap<>();
+  private final CommandTrie commandTrie = new CommandTrie();
+  private final HashMap<Command, OptionTable> optionTables = new HashMap<>();
+  private final Parser parser = new Parser(this.commandTrie, this.optionTables);
   private final List<Method> injectables = new ArrayList<>();
+  private final Map<Method, InvocationPlan> invocationPlans = new HashMap<>();
+  private final Map<Class<?>, EntityBinder> entityBinders = new HashMap<>();
+  private final Map<Class<?>, Object> singletonHandlers = new ConcurrentHashMap<>();
+  private final Map<Class<?>, Map<String, Object>> guildHandlers = new ConcurrentHashMap<>();
   private final Map<Command, CommandContainer> disabledCommands = new HashMap<>();
+  private boolean anyCommandChecksAccess = false;
 
   public CommandRegistrar() {
     this.commandToFlags.put(helpCommand, Set.of(helpPageFlag));
+    this.compileOptions(helpCommand);
     this.commandTable.put(helpCommand, null);
+    this.commandIndex.put(helpCommand.getCommandName(), helpCommand);
+    this.commandTrie.insert(helpCommand);
   }
 
+  /**
+   * Registers the handler of {@code command}. A handler that cannot be called, like a scoped
+   * handler whose constructor takes a request, is a programming error, so this throws an {@link
+   * IllegalStateException} rather than leaving the command out.
+   */
   public void register(Command command, Method method) {
+    if (!this.invocationPlans.containsKey(method)) {
+      try {
+        this.invocationPlans.put(
+            method, InvocationPlan.compile(method, this.injectables, this.entityBinders));
+      } catch (ReflectiveOperationException
+          | InaccessibleObjectException
+          | IllegalArgumentException exec) {
+        throw new IllegalStateException(
+            "Could not register handler for `" + command.getCommandName() + "`", exec);
+      }
+    }
+
     this.commandToFlags.putIfAbsent(command, new HashSet<>());
     this.commandToFlags.get(command).add(helpFlag);
+    this.compileOptions(command);
     this.commandTable.put(command, method);
+    this.anyCommandChecksAccess |= checksAccess(command);
+    this.commandIndex.putIfAbsent(command.getCommandName(), command);
+    this.commandTrie.insert(command);
 
     for (String alias : command.getAliases()) {
       Command aliasCommand = this.alias(command, alias);
@@ -51,6 +89,7 @@ public class CommandRegistrar<E, T> {
   public void register(Command command, CommandFlag flag) {
     this.commandToFlags.putIfAbsent(command, new HashSet<>());
     this.commandToFlags.get(command).add(flag);
+    this.compileOptions(command);
 
     for (String alias : command.getAliases()) {
       Command aliasCommand = this.alias(command, alias);
@@ -58,59 +97,181 @@ public class CommandRegistrar<E, T> {
     }
   }
 
+  private void compileOptions(Command command) {
+    this.optionTables.put(command, OptionTable.of(this.commandToFlags.get(command)));
+  }
+
   public void register(Method method) {
+    if (!Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0) {
+      logger.error(
+          "Injectable `{}` in {} must be static and take no parameters!  It will not be injected.",
+          method.getName(),
+          method.getDeclaringClass().getSimpleName());
+      return;
+    }
     this.injectables.add(method);
   }
 
+  /**
+   * Cheap checks that can run before a message is queued for dispatch. Returns false only for
+   * commands that {@link #dispatch} would drop without replying: ones that are disabled in the
+   * guild or are on a silent cooldown. Unknown commands and requests for help are still let through
+   * so they can be answered, and so are disabled commands that require roles or permissions, as
+   * members without them are told so before the command is found to be disabled.
+   */
+  public boolean canDispatch(List<String> args, AbstractDispatcher<E, T> helper, E event) {
+    CommandTrie.Match match = this.commandTrie.longestMatch(args);
+    if (match == null || match.getCommand() == helpCommand) return true;
+
+    for (String arg : args) {
+      if (arg.equals("-h") || arg.equals("--help")) return true;
+    }
+
+    Command command = match.getCommand();
+    if (!helper.isEnabledForGuild(event, command) && !checksAccess(command)) return false;
+
+    return command.getMessageStrategy() != MessageStrategy.SILENT
+        || cooldownLeft(command, helper, event).isZero();
+  }
+
+  /**
+   * Whether dispatching {@code args} checks the roles or permissions of the author. That is the
+   * case when the command requires roles or permissions, or when help is asked for and any command
+   * does, so adapters only need to look them up for those messages.
+   */
+  public boolean checksAccess(List<String> args) {
+    CommandTrie.Match match = this.commandTrie.longestMatch(args);
+    if (match == null) return false;
+
+    if (match.getCommand() == helpCommand || args.contains("-h") || args.contains("--help")) {
+      return this.anyCommandChecksAccess;
+    }
+    return checksAccess(match.getCommand());
+  }
+
+  private static boolean checksAccess(Command command) {
+    return command.getRoles().length > 0 || command.getPerms().length > 0;
+  }
+
   public void dispatch(List<String> args, AbstractDispatcher<E, T> helper, E event) {
+    CompletionStage<Void> dispatched;
+    try {
+      dispatched = this.dispatchCommand(args, helper, event);
+    } catch (RuntimeException exec) {
+      logger.error("Unhandled exception: ", exec);
+      dispatched = done();
+    }
+
+    dispatched.whenComplete(
+        (nothing, throwable) -> {
+          if (throwable != null) {
+            logger.error("Unhandled exception: ", throwable);
+          }
+          helper.dispatchComplete(event);
+        });
+  }
+
+  /**
+   * Runs every check and then the command itself, composing the asynchronous variants of the
+   * dispatcher's checks and sends. The returned stage completes once the response has been sent.
+   */
+  private CompletionStage<Void> dispatchCommand(
+      List<String> args, AbstractDispatcher<E, T> helper, E event) {
     List<String> originalArgs = new ArrayList<>(args);
     ParsedOutput parsedOutput = this.parse(args, helper, event);
-    if (parsedOutput == null) return;
-
-    String commandName = parsedOutput.getCommand().getCommandName();
-    Command command =
-        this.commandTable.keySet().stream()
-            .filter(c -> c.getCommandName().equals(commandName))
-            .findFirst()
-            .orElse(null);
-    if (!commandTable.containsKey(command)) return;
-    if (helper.commandRolesNotMet(event, command) || helper.commandIntentsNotMet(event, command)) {
-      helper.roleNotMet(event, command);
-      return;
-    }
+    if (parsedOutput == null) return done();
+
+    Command command = this.commandIndex.get(parsedOutput.getCommand().getCommandName());
+    if (command == null) return done();
+
+    Executor continuations = helper.continuationsOf(event);
+    CompletionStage<Boolean> notMet =
+        helper
+            .commandRolesNotMetAsync(event, command)
+            .thenCombine(
+                helper.commandIntentsNotMetAsync(event, command),
+                (roles, intents) -> roles || intents);
+    return continueWith(
+        notMet,
+        rolesNotMet -> {
+          if (rolesNotMet) {
+            helper.roleNotMet(event, command);
+            return done();
+          }
 
-    if (this.help(originalArgs, helper, event, parsedOutput, command)) return;
+          if (this.help(originalArgs, helper, event, parsedOutput, command)) return done();
 
-    if (!canSendTo(helper, event, command)) return;
+          return continueWith(
+              canSendTo(helper, event, command),
+              canSend -> {
+                if (!canSend || !helper.isEnabledForGuild(event, command)) return done();
 
-    if (!helper.isEnabledForGuild(event, command)) return;
+                return this.runCommand(args, helper, event, parsedOutput, command);
+              },
+              continuations);
+        },
+        continuations);
+  }
+
+  /**
+   * Composes {@code next} onto {@code stage}. A stage that is already complete, like every check of
+   * a synchronous adapter, is continued straight away on the current thread. Otherwise it may
+   * complete on a thread of the library, so {@code next} hops back onto the execution manager.
+   */
+  private static <V> CompletionStage<Void> continueWith(
+      CompletionStage<V> stage,
+      Function<? super V, ? extends CompletionStage<Void>> next,
+      Executor continuations) {
+    CompletableFuture<V> future = stage.toCompletableFuture();
+    if (future.isDone()) {
+      return future.thenCompose(next);
+    }
+    return future.thenComposeAsync(next, continuations);
+  }
 
+  private CompletionStage<Void> runCommand(
+      List<String> args,
+      AbstractDispatcher<E, T> helper,
+      E event,
+      ParsedOutput parsedOutput,
+      Command command) {
     try {
-      this.emitCommand(args, helper, event, parsedOutput, command);
+      return this.emitCommand(args, helper, event, parsedOutput, command);
     } catch (ReflectiveOperationException exec) {
       logger.error("Error occurred", exec);
     } catch (OptionRequired exec) {
       helper.optionRequired(event, exec.getCommand(), exec.getFlag());
+    } catch (OptionRequiresInt exec) {
+      helper.flagRequiresInt(event, exec.getFlag(), exec.getReceived());
+    } catch (IncorrectOption exec) {
+      helper.incorrectOption(event, exec.getUserChoice(), exec.getFlagName(), exec.getOptions());
     } catch (Exception exec) {
       logger.error("Unhandled exception: ", exec);
     }
+
+    return done();
   }
 
-  private boolean canSendTo(AbstractDispatcher<E, T> helper, E event, Command command) {
+  private CompletionStage<Boolean> canSendTo(
+      AbstractDispatcher<E, T> helper, E event, Command command) {
     IncomingScope acceptFrom = command.getAcceptFrom();
 
     switch (acceptFrom) {
       case ALL:
-        return true;
+        return CompletableFuture.completedFuture(true);
       case CHANNEL:
-        return helper.isSentFromChannel(event);
+        return helper.isSentFromChannelAsync(event);
       case DM:
-        return helper.isSentFromDM(event);
+        return helper.isSentFromDMAsync(event);
       default:
-        return false;
+        return CompletableFuture.completedFuture(false);
     }
   }
 
+  private static CompletionStage<Void> done() {
+    return CompletableFuture.completedFuture(null);
+  }
+
   private boolean help(
       List<String> args,
       AbstractDispatcher<E, T> helper,
@@ -119,11 +280,7 @@ public class CommandRegistrar<E, T> {
       Command command) {
     String parentName = command.getParentName();
     if (parentName != null) {
-      command =
-          this.commandTable.keySet().stream()
-              .filter(c -> c.getCommandName().equals(parentName))
-              .findFirst()
-              .orElse(null);
+      command = this.commandIndex.get(parentName);
     }
     if (command == null) return false;
 
@@ -149,16 +306,11 @@ public class CommandRegistrar<E, T> {
       return;
     }
 
-    Command foundCommand = null;
     args.remove(0); // remove "help" command name
     String name = args.get(0);
     name = String.join(".", name.split(" "));
 
-    for (Command c : commandTable.keySet()) {
-      if (c.getCommandName().equals(name)) {
-        foundCommand = c;
-      }
-    }
+    Command foundCommand = this.commandIndex.get(name);
 
     if (foundCommand
         == null) { // foundCommand is null so we need to prefix match to see if we can provide more
@@ -171,18 +323,14 @@ public class CommandRegistrar<E, T> {
     String parentName = foundCommand.getParentName();
 
     if (parentName != null) {
-      foundCommand =
-          this.commandTable.keySet().stream()
-              .filter(c -> c.getCommandName().equals(parentName))
-              .findFirst()
-              .orElse(foundCommand);
+      foundCommand = this.commandIndex.getOrDefault(parentName, foundCommand);
     }
     this.emitHelp(args, helper, event, foundCommand);
   }
 
   private Command prefixHelp(
       List<String> args, AbstractDispatcher<E, T> helper, E event, String prefix) {
-    PrefixContainer prefixContainer = findCommandPrefixes(commandTable.keySet(), args);
+    PrefixContainer prefixContainer = findCommandPrefixes(args);
     List<Command> prefixes = prefixContainer.getPrefixes();
     String foundPrefix = prefixContainer.getFoundPrefix();
     if (prefixes.size() == 0) {
@@ -198,10 +346,9 @@ public class CommandRegistrar<E, T> {
   private void emitHelp(
       List<String> args, AbstractDispatcher<E, T> helper, E event, Command command) {
     List<String> translatedArgs = new ArrayList<>();
-    Parser parser = new Parser(this.commandToFlags);
     translatedArgs.add("help");
     translatedArgs.addAll(args);
-    ParsedOutput parsedOutput = parser.parse(translatedArgs);
+    ParsedOutput parsedOutput = this.parser.parse(translatedArgs);
     // This should only fail due to programmer error, so the cast *should* be safe... famous last
     // words
     int pageLimit =
@@ -209,17 +356,17 @@ public class CommandRegistrar<E, T> {
     helper.help(event, command, commandToFlags.get(command), commandTable.keySet(), pageLimit);
   }
 
-  private void emitCommand(
+  private CompletionStage<Void> emitCommand(
       List<String> args,
       AbstractDispatcher<E, T> helper,
       E event,
       ParsedOutput parsedOutput,
       Command foundCommand)
       throws ReflectiveOperationException, OptionRequired {
-    Method commandHandler = commandTable.get(foundCommand);
+    InvocationPlan plan = this.invocationPlans.get(commandTable.get(foundCommand));
 
     if (isOnCooldown(foundCommand, helper, event)) {
-      return;
+      return done();
     }
 
     String realCommandName = foundCommand.getParentName();
@@ -228,60 +375,96 @@ public class CommandRegistrar<E, T> {
     }
 
     if (!helper.runMiddleware(event, realCommandName)) {
-      return;
+      return done();
     }
 
-    Object[] objects =
-        this.fillParams(
-            commandHandler.getParameterTypes(), parsedOutput, helper, event, args, foundCommand);
+    Object[] values =
+        this.fillParams(plan.getArguments(), parsedOutput, helper, event, args, foundCommand);
 
-    commandHandler.setAccessible(true);
-    Object handlerObj = null; // null can work for static methods invocation
-    Constructor<?>[] ctors = commandHandler.getDeclaringClass().getDeclaredConstructors();
-    Arrays.sort(
-        ctors, Comparator.comparing(Constructor::getParameterCount, Comparator.reverseOrder()));
+    Object handlerObj = this.handlerInstance(plan, values, helper, event);
 
-    Object[] bestCtorParams = null;
-    Constructor<?> bestCtor = null;
-    int bestNonNull = Integer.MAX_VALUE;
+    Object result = plan.invoke(handlerObj, values);
+    CompletionStage<?> stage = helper.toCompletionStage(result);
+    if (stage == null) {
+      stage = CompletableFuture.completedFuture(result);
+    }
 
-    for (Constructor<?> ctor : ctors) {
-      Object[] ctorParams =
-          this.fillParams(
-              ctor.getParameterTypes(), parsedOutput, helper, event, args, foundCommand);
+    return stage.thenCompose(
+        value -> {
+          cooldown(foundCommand, helper, event);
+          return respond(value, helper, event);
+        });
+  }
 
-      if (ctorParams == null) return;
+  private CompletionStage<Void> respond(Object result, AbstractDispatcher<E, T> helper, E event) {
+    if (!(result instanceof AbstractDiscordResponse)) {
+      return done();
+    }
 
-      boolean noneNull = Arrays.stream(ctorParams).noneMatch(Objects::isNull);
+    AbstractDiscordResponse<T> response = (AbstractDiscordResponse<T>) result;
+    long start = System.nanoTime();
+    CompletionStage<Void> sent = done();
 
-      if (noneNull || ctor.isAnnotationPresent(Populate.class)) {
-        bestCtor = ctor;
-        bestCtorParams = ctorParams;
-        break;
-      } else {
-        int amountNotNull = (int) Arrays.stream(ctorParams).filter(Objects::isNull).count();
-        if (ctor.getParameterCount() > 0 && amountNotNull < bestNonNull) {
-          bestCtor = ctor;
-          bestCtorParams = ctorParams;
-        }
-      }
+    Optional<String> message = response.getOptionalMessage();
+    if (message.isPresent()) {
+      sent = sent.thenCompose(nothing -> helper.sendMessageAsync(event, message.get()));
     }
 
-    if (bestCtor != null) {
-      bestCtor.setAccessible(true);
-      handlerObj = bestCtor.newInstance(bestCtorParams);
+    Optional<T> builder = response.getOptionalBuilder();
+    if (builder.isPresent()) {
+      sent = sent.thenCompose(nothing -> helper.sendEmbedAsync(event, builder.get()));
     }
 
-    if (AbstractDiscordResponse.class.isAssignableFrom(commandHandler.getReturnType())) {
-      AbstractDiscordResponse<T> response =
-          (AbstractDiscordResponse<T>) commandHandler.invoke(handlerObj, objects);
-      response.getOptionalMessage().ifPresent(msg -> helper.sendMessage(event, msg));
-      response.getOptionalBuilder().ifPresent(builder -> helper.sendEmbed(event, builder));
-    } else {
-      commandHandler.invoke(handlerObj, objects);
+    return sent.thenRun(
+        () -> logger.debug("Sent response in {} ms", (System.nanoTime() - start) / 1_000_000));
+  }
+
+  /**
+   * Returns the object to invoke the handler on, which is {@code null} for static handlers.
+   * Handlers scoped to a singleton or a guild are constructed on first use, from injectables only,
+   * see {@link InvocationPlan#compile}. Events without a guild share a single instance.
+   */
+  private Object handlerInstance(
+      InvocationPlan plan, Object[] values, AbstractDispatcher<E, T> helper, E event)
+      throws InvocationTargetException {
+    switch (plan.getScope()) {
+      case SINGLETON:
+        return cachedInstance(this.singletonHandlers, plan.getDeclaringClass(), plan, values);
+      case PER_GUILD:
+        String guildId = helper.guildOf(event);
+        Map<String, Object> instances =
+            this.guildHandlers.computeIfAbsent(
+                plan.getDeclaringClass(), clazz -> new ConcurrentHashMap<>());
+        return cachedInstance(instances, guildId == null ? "" : guildId, plan, values);
+      default:
+        return plan.newInstance(values);
+    }
+  }
+
+  /**
+   * Drops the {@link HandlerScope#PER_GUILD} handlers of a guild, for when the bot has left it.
+   * Until then they are kept for as long as the registrar, one per guild the command was used in.
+   */
+  public void releaseGuild(String guildId) {
+    for (Map<String, Object> instances : this.guildHandlers.values()) {
+      instances.remove(guildId);
     }
+  }
 
-    cooldown(foundCommand, helper, event);
+  private static <K> Object cachedInstance(
+      Map<K, Object> instances, K key, InvocationPlan plan, Object[] values)
+      throws InvocationTargetException {
+    Object instance = instances.get(key);
+    if (instance == null) {
+      synchronized (instances) {
+        instance = instances.get(key);
+        if (instance == null) {
+          instance = plan.newInstance(values);
+          instances.put(key, instance);
+        }
+      }
+    }
+    return instance;
   }
 
   private void cooldown(Command command, AbstractDispatcher<E, T> helper, E event) {
@@ -293,30 +476,29 @@ public class CommandRegistrar<E, T> {
   }
 
   private boolean isOnCooldown(Command command, AbstractDispatcher<E, T> helper, E event) {
-    Duration cooldownDuration = command.getCooldownDuration();
-    CooldownManager cooldownManager = helper.getCooldownManager();
-    CooldownScope scope = command.getScope();
+    if (cooldownLeft(command, helper, event).isZero()) {
+      return false;
+    }
 
-    if (!cooldownDuration.isZero()) {
-      CooldownCompositeKey<String> cooldownCompositeKey =
-          createPairWithScope(command, helper, event);
-      String cooldownMessage = scope.getCooldownMessage();
-      Duration left = cooldownManager.timeLeft(cooldownCompositeKey, cooldownDuration);
-
-      if (!left.isZero()) {
-        switch (command.getMessageStrategy()) {
-          case MESSAGE:
-            helper.sendMessage(event, cooldownMessage);
-            break;
-          case REACT:
-            helper.sendReact(event, "\uD83D\uDD52");
-            break;
-        }
-        return true;
-      }
+    switch (command.getMessageStrategy()) {
+      case MESSAGE:
+        helper.sendMessage(event, command.getScope().getCooldownMessage());
+        break;
+      case REACT:
+        helper.sendReact(event, "\uD83D\uDD52");
+        break;
     }
+    return true;
+  }
 
-    return false;
+  private Duration cooldownLeft(Command command, AbstractDispatcher<E, T> helper, E event) {
+    Duration cooldownDuration = command.getCooldownDuration();
+    if (cooldownDuration.isZero()) {
+      return Duration.ZERO;
+    }
+
+    CooldownManager cooldownManager = helper.getCooldownManager();
+    return cooldownManager.timeLeft(createPairWithScope(command, helper, event), cooldownDuration);
   }
 
   private CooldownCompositeKey<String> createPairWithScope(
@@ -326,7 +508,7 @@ public class CommandRegistrar<E, T> {
       commandName = command.getCommandName();
     }
 
-    String guildId = helper.guildFromEvent(event);
+    String guildId = helper.guildOf(event);
     switch (command.getScope()) {
       case USER:
         return CooldownCompositeKey.of(guildId, helper.identityFromEvent(event), commandName);
@@ -340,108 +522,21 @@ public class CommandRegistrar<E, T> {
   }
 
   private Object[] fillParams(
-      Class<?>[] parameterTypes,
+      InvocationPlan.ParameterPlan[] parameters,
       ParsedOutput parsedOutput,
       AbstractDispatcher<E, T> helper,
       E event,
       List<String> args,
       Command foundCommand)
       throws ReflectiveOperationException {
-    Object[] params = new Object[parameterTypes.length];
+    Object[] params = new Object[parameters.length];
     int i = 0;
 
-    for (Class<?> clazz : parameterTypes) {
-      if (clazz.isAnnotationPresent(ParsedEntity.class)) {
-        Constructor<?> constructor = clazz.getDeclaredConstructors()[0];
-        constructor.setAccessible(true);
-        Object newObject = constructor.newInstance();
-
-        for (Field field : Detector.allImplicitFields(clazz)) {
-          if (field.isAnnotationPresent(Flag.class)) {
-            Flag flagAnnotation = field.getAnnotation(Flag.class);
-
-            CommandFlag flag = Utils.createFlagFromAnnotation(field, flagAnnotation);
-            if (parsedOutput.getOptions().containsKey(flag)) {
-              Object val = parsedOutput.getOptions().get(flag);
-              field.setAccessible(true);
-
-              if (flag.getType().equals(Types.INT)) {
-                try {
-                  field.set(newObject, Integer.parseInt((String) val));
-                } catch (NumberFormatException numberFormatException) {
-                  helper.flagRequiresInt(event, flag, (String) val);
-                  return null;
-                }
-              } else if (flag.getType().equals(Types.ENUM)) {
-                Map<String, String> choices = flag.getChoices();
-                String choice = choices.getOrDefault(val, (String) val);
-                try {
-                  field.set(newObject, Enum.valueOf((Class<Enum>) field.getType(), choice));
-                } catch (IllegalArgumentException illegalArgumentException) {
-                  String name = flagAnnotation.longName();
-                  if (name.equals("")) {
-                    name = String.valueOf(flagAnnotation.shortName());
-                  }
-                  String options =
-                      choices.keySet().stream()
-                          .map(s -> "`" + s + "`")
-                          .collect(Collectors.joining(", "));
-                  helper.incorrectOption(event, (String) val, name, options);
-                  return null;
-                }
-              } else if (flag.getType().equals(Types.INT_LIST)) {
-                List<Integer> ints = new ArrayList<>();
-                for (String str : (List<String>) val) {
-                  try {
-                    ints.add(Integer.parseInt(str));
-                  } catch (NumberFormatException numberFormatException) {
-                    helper.flagRequiresInt(event, flag, str);
-                    return null;
-                  }
-                }
-                field.set(newObject, ints);
-              } else if (flag.getType().equals(Types.ENUM_LIST)) {
-                List<Enum<?>> enums = new ArrayList<>();
-                Map<String, String> choices = flag.getChoices();
-                Class<?> genericTypes =
-                    (Class<?>)
-                        ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
-                for (String str : (List<String>) val) {
-                  String choice = choices.getOrDefault(str, str);
-                  try {
-                    enums.add(Enum.valueOf((Class<Enum>) genericTypes, choice));
-                  } catch (IllegalArgumentException illegalArgumentException) {
-                    String name = flagAnnotation.longName();
-                    if (name.equals("")) {
-                      name = String.valueOf(flagAnnotation.shortName());
-                    }
-                    String options =
-                        choices.keySet().stream()
-                            .map(s -> "`" + s + "`")
-                            .collect(Collectors.joining(", "));
-                    helper.incorrectOption(event, choice, name, options);
-                    return null;
-                  }
-                }
-                field.set(newObject, enums);
-              } else {
-                field.set(newObject, val);
-              }
-            } else if (flag.isRequired()) {
-              throw new OptionRequired(
-                  "The flag `--"
-                      + flag
-                      + "` is required for `"
-                      + foundCommand.getCommandName()
-                      + "` to be ran!",
-                  foundCommand,
-                  flag);
-            }
-          }
-        }
-        params[i] = newObject;
+    for (InvocationPlan.ParameterPlan parameter : parameters) {
+      if (parameter.isParsedEntity()) {
+        params[i] = parameter.bind(parsedOutput, foundCommand);
       } else {
-        this.fillObjectArr(params, i, clazz, args, event, helper);
+        this.fillObjectArr(params, i, parameter, args, event, helper);
       }
       i++;
     }
@@ -452,27 +547,21 @@ public class CommandRegistrar<E, T> {
   private void fillObjectArr(
       Object[] objects,
       int index,
-      Class<?> clazz,
+      InvocationPlan.ParameterPlan parameter,
       List<String> args,
       E event,
       AbstractDispatcher<E, T> helper)
       throws ReflectiveOperationException {
-    if (AbstractDiscordRequest.class.isAssignableFrom(clazz)) {
+    if (parameter.isInjectable()) {
+      objects[index] = parameter.inject();
+    } else if (parameter.isRequest()) {
       objects[index] = helper.createRequest(event, args);
     }
-
-    for (Method injectable : this.injectables) {
-      if (clazz.isAssignableFrom(injectable.getReturnType())) {
-        objects[index] = injectable.invoke(null);
-      }
-    }
   }
 
   private ParsedOutput parse(List<String> args, AbstractDispatcher<E, T> helper, E event) {
-    Parser parser = new Parser(this.commandToFlags);
-
     try {
-      return parser.parse(args);
+      return this.parser.parse(args);
     } catch (NoCommandNameFound noCommandNameFound) {
       noCommandNameFound(args, helper, event);
     } catch (OptionRequiresValue optionRequiresValue) {
@@ -483,7 +572,7 @@ public class CommandRegistrar<E, T> {
   }
 
   private void noCommandNameFound(List<String> args, AbstractDispatcher<E, T> helper, E event) {
-    PrefixContainer prefixContainer = findCommandPrefixes(commandTable.keySet(), args);
+    PrefixContainer prefixContainer = findCommandPrefixes(args);
     List<Command> prefixMatchedCommands = prefixContainer.getPrefixes();
     String foundPrefix = prefixContainer.getFoundPrefix();
 
@@ -508,10 +597,8 @@ public class CommandRegistrar<E, T> {
     return this.commandToFlags;
   }
 
-  private Optional<Command> findCommand(Set<Command> commands, String commandName) {
-    return commands.stream()
-        .filter(command -> command.getCommandName().equals(commandName))
-        .findFirst();
+  public Optional<Command> findCommand(String commandName) {
+    return Optional.ofNullable(this.commandIndex.get(commandName));
   }
 
   private Command alias(Command command, String alias) {
@@ -532,25 +619,11 @@ public class CommandRegistrar<E, T> {
     return aliasCommand;
   }
 
-  private PrefixContainer findCommandPrefixes(Set<Command> commands, List<String> args) {
-
-    List<Command> prefixes = new ArrayList<>();
-
-    for (int i = args.size(); i > 0; i--) {
-      List<String> trimmed = args.subList(0, i);
-      String possibleCommandName = String.join(".", trimmed);
-
-      prefixes =
-          commands.stream()
-              .filter(command -> command.getCommandName().startsWith(possibleCommandName))
-              .collect(Collectors.toList());
-
-      if (prefixes.size() > 0) {
-        return new PrefixContainer(possibleCommandName, prefixes);
-      }
-    }
+  private PrefixContainer findCommandPrefixes(List<String> args) {
+    CommandTrie.Prefixes prefixes = this.commandTrie.prefixes(args);
+    String foundPrefix = String.join(".", args.subList(0, prefixes.getLength()));
 
-    return new PrefixContainer("", prefixes);
+    return new PrefixContainer(foundPrefix, prefixes.getCommands());
   }
 
   class CommandContainer {
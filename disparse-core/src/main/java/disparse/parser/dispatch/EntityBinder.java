@@ -0,0 +1,187 @@
+package disparse.parser.dispatch;
+
+import disparse.parser.Command;
+import disparse.parser.CommandFlag;
+import disparse.parser.ParsedOutput;
+import disparse.parser.exceptions.IncorrectOption;
+import disparse.parser.exceptions.OptionRequired;
+import disparse.parser.exceptions.OptionRequiresInt;
+import disparse.parser.reflection.Detector;
+import disparse.parser.reflection.Flag;
+import disparse.parser.reflection.Utils;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fills a new instance of a {@code ParsedEntity} from a {@link ParsedOutput}. The flag of every
+ * annotated field, a setter handle for it and a converter for its type are all worked out once per
+ * entity class, so binding does not read any annotations.
+ */
+class EntityBinder {
+
+  private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+  private static final MethodType SETTER_TYPE =
+      MethodType.methodType(void.class, Object.class, Object.class);
+
+  private final MethodHandle constructor;
+  private final FieldBinding[] bindings;
+
+  private EntityBinder(MethodHandle constructor, FieldBinding[] bindings) {
+    this.constructor = constructor;
+    this.bindings = bindings;
+  }
+
+  static EntityBinder compile(MethodHandles.Lookup lookup, Class<?> clazz)
+      throws ReflectiveOperationException {
+    Constructor<?> ctor = clazz.getDeclaredConstructor();
+    ctor.setAccessible(true);
+
+    List<FieldBinding> bindings = new ArrayList<>();
+    for (Field field : Detector.allImplicitFields(clazz)) {
+      if (field.isAnnotationPresent(Flag.class)) {
+        Flag flagAnnotation = field.getAnnotation(Flag.class);
+        CommandFlag flag = Utils.createFlagFromAnnotation(field, flagAnnotation);
+
+        field.setAccessible(true);
+        bindings.add(
+            new FieldBinding(
+                flag,
+                lookup.unreflectSetter(field).asType(SETTER_TYPE),
+                converter(field, flag, flagAnnotation)));
+      }
+    }
+
+    return new EntityBinder(
+        lookup.unreflectConstructor(ctor).asType(CONSTRUCTOR_TYPE),
+        bindings.toArray(FieldBinding[]::new));
+  }
+
+  Object bind(ParsedOutput parsedOutput, Command command) throws InvocationTargetException {
+    Map<CommandFlag, Object> options = parsedOutput.getOptions();
+
+    try {
+      Object entity = (Object) this.constructor.invokeExact();
+
+      for (FieldBinding binding : this.bindings) {
+        CommandFlag flag = binding.flag;
+        Object val = options.get(flag);
+
+        if (val != null) {
+          binding.setter.invokeExact(entity, binding.converter.apply(val));
+        } else if (flag.isRequired()) {
+          throw new OptionRequired(
+              "The flag `--"
+                  + flag
+                  + "` is required for `"
+                  + command.getCommandName()
+                  + "` to be ran!",
+              command,
+              flag);
+        }
+      }
+
+      return entity;
+    } catch (OptionRequired | OptionRequiresInt | IncorrectOption exec) {
+      throw exec;
+    } catch (Throwable throwable) {
+      throw new InvocationTargetException(throwable);
+    }
+  }
+
+  private static Function<Object, Object> converter(
+      Field field, CommandFlag flag, Flag flagAnnotation) {
+    switch (flag.getType()) {
+      case INT:
+        return val -> parseInt(flag, (String) val);
+      case INT_LIST:
+        return val -> {
+          List<Integer> ints = new ArrayList<>();
+          for (String str : (List<String>) val) {
+            ints.add(parseInt(flag, str));
+          }
+          return ints;
+        };
+      case ENUM:
+        {
+          Class<Enum> enumClass = (Class<Enum>) field.getType();
+          String name = flagName(flagAnnotation);
+          String options = options(flag);
+          return val -> {
+            String choice = flag.getChoices().getOrDefault(val, (String) val);
+            return parseEnum(enumClass, choice, (String) val, name, options);
+          };
+        }
+      case ENUM_LIST:
+        {
+          Class<Enum> enumClass =
+              (Class<Enum>)
+                  ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
+          String name = flagName(flagAnnotation);
+          String options = options(flag);
+          return val -> {
+            List<Enum<?>> enums = new ArrayList<>();
+            for (String str : (List<String>) val) {
+              String choice = flag.getChoices().getOrDefault(str, str);
+              enums.add(parseEnum(enumClass, choice, choice, name, options));
+            }
+            return enums;
+          };
+        }
+      default:
+        return Function.identity();
+    }
+  }
+
+  private static Integer parseInt(CommandFlag flag, String val) {
+    try {
+      return Integer.parseInt(val);
+    } catch (NumberFormatException numberFormatException) {
+      throw new OptionRequiresInt("Option requires an integer value", flag, val);
+    }
+  }
+
+  private static Enum<?> parseEnum(
+      Class<Enum> enumClass, String choice, String userChoice, String name, String options) {
+    try {
+      return Enum.valueOf(enumClass, choice);
+    } catch (IllegalArgumentException illegalArgumentException) {
+      throw new IncorrectOption("Option was not a valid choice", userChoice, name, options);
+    }
+  }
+
+  private static String flagName(Flag flagAnnotation) {
+    String name = flagAnnotation.longName();
+    if (name.equals("")) {
+      name = String.valueOf(flagAnnotation.shortName());
+    }
+    return name;
+  }
+
+  private static String options(CommandFlag flag) {
+    return flag.getChoices().keySet().stream()
+        .map(s -> "`" + s + "`")
+        .collect(Collectors.joining(", "));
+  }
+
+  private static class FieldBinding {
+    private final CommandFlag flag;
+    private final MethodHandle setter;
+    private final Function<Object, Object> converter;
+
+    FieldBinding(CommandFlag flag, MethodHandle setter, Function<Object, Object> converter) {
+      this.flag = flag;
+      this.setter = setter;
+      this.converter = converter;
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package disparse.parser.dispatch;
+
+/**
+ * How long a handler object is kept. Handlers that are kept beyond a single dispatch may only take
+ * injectables in their constructor, as parsed entities and requests belong to one dispatch.
+ */
+public enum HandlerScope {
+  /** A new handler object is constructed for every command that is dispatched. */
+  PER_INVOCATION,
+  /** A single handler object is constructed on first use and reused for every dispatch. */
+  SINGLETON,
+  /**
+   * A handler object is constructed on first use in each guild and reused within that guild, until
+   * the bot leaves the guild.
+   */
+  PER_GUILD
+}
@@ -0,0 +1,340 @@
+package disparse.parser.dispatch;
+
+import disparse.discord.AbstractDiscordRequest;
+import disparse.parser.Command;
+import disparse.parser.ParsedOutput;
+import disparse.parser.reflection.CommandHandler;
+import disparse.parser.reflection.ParsedEntity;
+import disparse.parser.reflection.Populate;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything needed to call a single {@code CommandHandler}, worked out once when the handler is
+ * registered. The handler and the constructor used to build its declaring class are unreflected
+ * into method handles of a uniform shape, and every distinct parameter type across the two is given
+ * a single argument slot, so each dispatch binds its arguments exactly once.
+ */
+class InvocationPlan {
+
+  private static final MethodType HANDLER_TYPE =
+      MethodType.methodType(Object.class, Object.class, Object[].class);
+  private static final MethodType CONSTRUCTOR_TYPE =
+      MethodType.methodType(Object.class, Object[].class);
+  private static final MethodType INJECTABLE_TYPE = MethodType.methodType(Object.class);
+
+  private final Class<?> handlerClass;
+  private final MethodHandle handler;
+  private final int[] handlerSlots;
+  private final ConstructorPlan constructor;
+  private final ParameterPlan[] arguments;
+  private final HandlerScope scope;
+
+  private InvocationPlan(
+      Class<?> handlerClass,
+      MethodHandle handler,
+      int[] handlerSlots,
+      ConstructorPlan constructor,
+      ParameterPlan[] arguments,
+      HandlerScope scope) {
+    this.handlerClass = handlerClass;
+    this.handler = handler;
+    this.handlerSlots = handlerSlots;
+    this.constructor = constructor;
+    this.arguments = arguments;
+    this.scope = scope;
+  }
+
+  static InvocationPlan compile(
+      Method method, List<Method> injectables, Map<Class<?>, EntityBinder> binders)
+      throws ReflectiveOperationException {
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    Slots slots = new Slots(lookup, injectables, binders);
+
+    method.setAccessible(true);
+    MethodHandle handler = lookup.unreflect(method).asFixedArity();
+    boolean isStatic = Modifier.isStatic(method.getModifiers());
+    if (isStatic) {
+      handler = MethodHandles.dropArguments(handler, 0, Object.class);
+    }
+    handler = handler.asSpreader(Object[].class, method.getParameterCount()).asType(HANDLER_TYPE);
+    int[] handlerSlots = slots.of(method.getParameterTypes());
+
+    ConstructorPlan constructor = null;
+    if (!isStatic) {
+      Constructor<?> ctor = resolveConstructor(method.getDeclaringClass(), slots);
+      if (ctor != null) {
+        constructor = ConstructorPlan.compile(lookup, ctor, slots);
+      }
+    }
+
+    HandlerScope scope = HandlerScope.PER_INVOCATION;
+    CommandHandler annotation = method.getAnnotation(CommandHandler.class);
+    if (constructor != null && annotation != null) {
+      scope = annotation.handlerScope();
+    }
+
+    if (scope != HandlerScope.PER_INVOCATION) {
+      // a scoped instance outlives the dispatch that built it, so its constructor must not see
+      // anything that belongs to that dispatch
+      for (int slot : constructor.slots) {
+        ParameterPlan argument = slots.arguments.get(slot);
+        if (argument.isParsedEntity() || argument.isRequest()) {
+          throw new IllegalArgumentException(
+              String.format(
+                  "%s is scoped %s, but its constructor takes %s, which is only valid for a single"
+                      + " dispatch.  Scoped handlers may only be constructed from injectables.",
+                  method.getDeclaringClass().getSimpleName(),
+                  scope,
+                  argument.getType().getSimpleName()));
+        }
+      }
+    }
+
+    return new InvocationPlan(
+        method.getDeclaringClass(),
+        handler,
+        handlerSlots,
+        constructor,
+        slots.arguments.toArray(ParameterPlan[]::new),
+        scope);
+  }
+
+  /**
+   * Picks the constructor used to build the handler's declaring class. Going from the most
+   * parameters to the fewest, the first one that is annotated with {@link Populate} or whose
+   * parameters can all be supplied wins. Failing that, the constructor with the fewest parameters
+   * that cannot be supplied is used, and those are passed as {@code null}.
+   */
+  private static Constructor<?> resolveConstructor(Class<?> declaringClass, Slots slots)
+      throws ReflectiveOperationException {
+    if (Modifier.isAbstract(declaringClass.getModifiers())) {
+      return null;
+    }
+
+    Constructor<?>[] ctors = declaringClass.getDeclaredConstructors();
+    Arrays.sort(
+        ctors, Comparator.comparing(Constructor::getParameterCount, Comparator.reverseOrder()));
+
+    Constructor<?> best = null;
+    int bestUnresolved = Integer.MAX_VALUE;
+
+    for (Constructor<?> ctor : ctors) {
+      int unresolved = 0;
+      for (Class<?> type : ctor.getParameterTypes()) {
+        if (!slots.get(type).isResolvable()) {
+          unresolved++;
+        }
+      }
+
+      if (unresolved == 0 || ctor.isAnnotationPresent(Populate.class)) {
+        return ctor;
+      } else if (ctor.getParameterCount() > 0 && unresolved < bestUnresolved) {
+        best = ctor;
+        bestUnresolved = unresolved;
+      }
+    }
+
+    return best;
+  }
+
+  /**
+   * Builds the handler's receiver from the already bound {@code values}, or returns {@code null}
+   * for static handlers.
+   */
+  Object newInstance(Object[] values) throws InvocationTargetException {
+    if (this.constructor == null) {
+      return null;
+    }
+    return this.constructor.newInstance(select(this.constructor.slots, values));
+  }
+
+  Object invoke(Object target, Object[] values) throws InvocationTargetException {
+    try {
+      return (Object) this.handler.invokeExact(target, select(this.handlerSlots, values));
+    } catch (Throwable throwable) {
+      throw new InvocationTargetException(throwable);
+    }
+  }
+
+  private static Object[] select(int[] slots, Object[] values) {
+    Object[] args = new Object[slots.length];
+    for (int i = 0; i < slots.length; i++) {
+      args[i] = values[slots[i]];
+    }
+    return args;
+  }
+
+  /** The distinct arguments shared by the handler and its constructor, one per slot. */
+  ParameterPlan[] getArguments() {
+    return arguments;
+  }
+
+  /**
+   * How long objects built by {@link #newInstance} may be kept. Static handlers and handlers
+   * without a usable constructor are always {@link HandlerScope#PER_INVOCATION}.
+   */
+  HandlerScope getScope() {
+    return scope;
+  }
+
+  Class<?> getDeclaringClass() {
+    return handlerClass;
+  }
+
+  private static class Slots {
+    private final MethodHandles.Lookup lookup;
+    private final List<Method> injectables;
+    private final Map<Class<?>, EntityBinder> binders;
+    private final Map<Class<?>, Integer> indices = new HashMap<>();
+    private final List<ParameterPlan> arguments = new ArrayList<>();
+
+    Slots(
+        MethodHandles.Lookup lookup,
+        List<Method> injectables,
+        Map<Class<?>, EntityBinder> binders) {
+      this.lookup = lookup;
+      this.injectables = injectables;
+      this.binders = binders;
+    }
+
+    int indexOf(Class<?> type) throws ReflectiveOperationException {
+      Integer index = this.indices.get(type);
+      if (index == null) {
+        index = this.arguments.size();
+        this.arguments.add(
+            ParameterPlan.compile(this.lookup, type, this.injectables, this.binders));
+        this.indices.put(type, index);
+      }
+      return index;
+    }
+
+    ParameterPlan get(Class<?> type) throws ReflectiveOperationException {
+      return this.arguments.get(indexOf(type));
+    }
+
+    int[] of(Class<?>[] types) throws ReflectiveOperationException {
+      int[] slots = new int[types.length];
+      for (int i = 0; i < types.length; i++) {
+        slots[i] = indexOf(types[i]);
+      }
+      return slots;
+    }
+  }
+
+  static class ParameterPlan {
+    private final Class<?> type;
+    private final EntityBinder binder;
+    private final boolean request;
+    private final MethodHandle injectable;
+
+    private ParameterPlan(
+        Class<?> type, EntityBinder binder, boolean request, MethodHandle injectable) {
+      this.type = type;
+      this.binder = binder;
+      this.request = request;
+      this.injectable = injectable;
+    }
+
+    static ParameterPlan compile(
+        MethodHandles.Lookup lookup,
+        Class<?> type,
+        List<Method> injectables,
+        Map<Class<?>, EntityBinder> binders)
+        throws ReflectiveOperationException {
+      EntityBinder binder = null;
+      if (type.isAnnotationPresent(ParsedEntity.class)) {
+        binder = binders.get(type);
+        if (binder == null) {
+          binder = EntityBinder.compile(lookup, type);
+          binders.put(type, binder);
+        }
+      }
+
+      MethodHandle injectable = null;
+      for (Method method : injectables) {
+        if (type.isAssignableFrom(method.getReturnType())) {
+          method.setAccessible(true);
+          injectable = lookup.unreflect(method).asType(INJECTABLE_TYPE);
+        }
+      }
+
+      return new ParameterPlan(
+          type, binder, AbstractDiscordRequest.class.isAssignableFrom(type), injectable);
+    }
+
+    Class<?> getType() {
+      return type;
+    }
+
+    boolean isParsedEntity() {
+      return binder != null;
+    }
+
+    Object bind(ParsedOutput parsedOutput, Command command) throws InvocationTargetException {
+      return this.binder.bind(parsedOutput, command);
+    }
+
+    boolean isRequest() {
+      return request;
+    }
+
+    Object inject() throws InvocationTargetException {
+      try {
+        return (Object) this.injectable.invokeExact();
+      } catch (Throwable throwable) {
+        throw new InvocationTargetException(throwable);
+      }
+    }
+
+    boolean isInjectable() {
+      return injectable != null;
+    }
+
+    boolean isResolvable() {
+      return isParsedEntity() || isRequest() || isInjectable();
+    }
+  }
+
+  private static class ConstructorPlan {
+    private final MethodHandle constructor;
+    private final int[] slots;
+
+    private ConstructorPlan(MethodHandle constructor, int[] slots) {
+      this.constructor = constructor;
+      this.slots = slots;
+    }
+
+    static ConstructorPlan compile(MethodHandles.Lookup lookup, Constructor<?> ctor, Slots slots)
+        throws ReflectiveOperationException {
+      ctor.setAccessible(true);
+      MethodHandle constructor =
+          lookup
+              .unreflectConstructor(ctor)
+              .asFixedArity()
+              .asSpreader(Object[].class, ctor.getParameterCount())
+              .asType(CONSTRUCTOR_TYPE);
+
+      return new ConstructorPlan(constructor, slots.of(ctor.getParameterTypes()));
+    }
+
+    Object newInstance(Object[] args) throws InvocationTargetException {
+      try {
+        return (Object) this.constructor.invokeExact(args);
+      } catch (Throwable throwable) {
+        throw new InvocationTargetException(throwable);
+      }
+    }
+  }
+}
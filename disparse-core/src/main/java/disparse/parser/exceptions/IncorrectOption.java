@@ -0,0 +1,27 @@
+package disparse.parser.exceptions;
+
+public class IncorrectOption extends RuntimeException {
+
+  private String userChoice;
+  private String flagName;
+  private String options;
+
+  public IncorrectOption(String message, String userChoice, String flagName, String options) {
+    super(message);
+    this.userChoice = userChoice;
+    this.flagName = flagName;
+    this.options = options;
+  }
+
+  public String getUserChoice() {
+    return userChoice;
+  }
+
+  public String getFlagName() {
+    return flagName;
+  }
+
+  public String getOptions() {
+    return options;
+  }
+}
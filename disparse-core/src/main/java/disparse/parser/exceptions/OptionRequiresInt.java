@@ -0,0 +1,23 @@
+package disparse.parser.exceptions;
+
+import disparse.parser.CommandFlag;
+
+public class OptionRequiresInt extends RuntimeException {
+
+  private CommandFlag flag;
+  private String received;
+
+  public OptionRequiresInt(String message, CommandFlag flag, String received) {
+    super(message);
+    this.flag = flag;
+    this.received = received;
+  }
+
+  public CommandFlag getFlag() {
+    return flag;
+  }
+
+  public String getReceived() {
+    return received;
+  }
+}
@@ -1,6 +1,7 @@
 package disparse.parser.reflection;
 
 import disparse.discord.AbstractPermission;
+import disparse.parser.dispatch.HandlerScope;
 import disparse.parser.dispatch.IncomingScope;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -24,4 +25,6 @@ public @interface CommandHandler {
   AbstractPermission[] perms() default {};
 
   String[] aliases() default {};
+
+  HandlerScope handlerScope() default HandlerScope.PER_INVOCATION;
 }
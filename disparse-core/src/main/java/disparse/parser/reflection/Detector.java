@@ -25,6 +25,9 @@ public class Detector {
 
   public static <E, T> CommandRegistrar<E, T> detect(Reflections reflections) {
     CommandRegistrar<E, T> registrar = new CommandRegistrar<>();
+    Set<Method> injectables = reflections.getMethodsAnnotatedWith(Injectable.class);
+    injectables.forEach(registrar::register);
+
     Set<Method> methods = reflections.getMethodsAnnotatedWith(CommandHandler.class);
 
     for (Method method : methods) {
@@ -76,9 +79,6 @@ public class Detector {
       registrar.register(command, method);
     }
 
-    Set<Method> injectables = reflections.getMethodsAnnotatedWith(Injectable.class);
-    injectables.forEach(registrar::register);
-
     return registrar;
   }
 
@@ -6,6 +6,10 @@ import java.util.List;
 public class Shlex {
 
   public static List<String> shlex(CharSequence argString) {
+    if (!hasSpecialChars(argString)) {
+      return split(argString.toString());
+    }
+
     List<String> tokens = new ArrayList<>();
     boolean escaping = false;
     char quoteChar = ' ';
@@ -26,7 +30,7 @@ public class Shlex {
       } else if (!quoting && Character.isWhitespace(c)) {
         if (current.length() > 0) {
           tokens.add(current.toString());
-          current = new StringBuilder();
+          current.setLength(0);
         }
       } else {
         current.append(c);
@@ -37,4 +41,37 @@ public class Shlex {
     }
     return tokens;
   }
+
+  private static boolean hasSpecialChars(CharSequence argString) {
+    for (int i = 0; i < argString.length(); i++) {
+      char c = argString.charAt(i);
+      if (c == '\\' || c == '\'' || c == '"') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Splits a message without quotes or escapes on whitespace, taking each token as a single
+   * substring of the message rather than building it up character by character.
+   */
+  private static List<String> split(String argString) {
+    List<String> tokens = new ArrayList<>();
+    int start = -1;
+    for (int i = 0; i < argString.length(); i++) {
+      if (Character.isWhitespace(argString.charAt(i))) {
+        if (start >= 0) {
+          tokens.add(argString.substring(start, i));
+          start = -1;
+        }
+      } else if (start < 0) {
+        start = i;
+      }
+    }
+    if (start >= 0) {
+      tokens.add(argString.substring(start));
+    }
+    return tokens;
+  }
 }
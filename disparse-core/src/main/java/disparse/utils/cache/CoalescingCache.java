@@ -0,0 +1,256 @@
+package disparse.utils.cache;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * A small cache for the results of slow lookups, such as REST calls. Concurrent lookups of the same
+ * key share a single call to the fetcher, results are kept for a fixed time to live, and once more
+ * than {@code maxSize} results are kept the least recently used one is evicted.
+ */
+public class CoalescingCache<K, V> {
+
+  private final long ttlNanos;
+  private final LongSupplier ticker;
+  private final Map<K, Entry<V>> entries;
+  private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  // fetches in progress, marked when their key is invalidated so that they do not store a stale
+  // result; guarded by entries
+  private final Set<Pending<K>> pending = new HashSet<>();
+
+  public CoalescingCache(Duration ttl, int maxSize) {
+    this(ttl, maxSize, System::nanoTime);
+  }
+
+  CoalescingCache(Duration ttl, int maxSize, LongSupplier ticker) {
+    this.ttlNanos = ttl.toNanos();
+    this.ticker = ticker;
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            return size() > maxSize;
+          }
+        };
+  }
+
+  /**
+   * Returns the cached value for {@code key}, or fetches it. If another thread is already fetching
+   * the same key this waits for its result instead of fetching again. Exceptions and errors thrown
+   * by {@code fetch} are rethrown to every waiting caller and nothing is cached.
+   */
+  public V get(K key, Function<? super K, ? extends V> fetch) {
+    V cached = this.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    CompletableFuture<V> mine = new CompletableFuture<>();
+    CompletableFuture<V> running = this.inFlight.putIfAbsent(key, mine);
+    if (running != null) {
+      return await(running);
+    }
+
+    try {
+      // a fetch may have finished between the first look and claiming the key
+      V value = this.getIfPresent(key);
+      if (value == null) {
+        Pending<K> pending = this.begin(key);
+        try {
+          value = fetch.apply(key);
+        } finally {
+          this.complete(pending, value);
+        }
+      }
+      mine.complete(value);
+      return value;
+    } catch (Throwable exec) {
+      // waiting callers must be released whatever the fetch threw, errors included
+      mine.completeExceptionally(exec);
+      throw exec;
+    } finally {
+      this.inFlight.remove(key, mine);
+    }
+  }
+
+  /**
+   * Like {@link #get}, for values that are fetched asynchronously. Concurrent lookups of the same
+   * key share the stage of a single fetch, and a fetch that fails is passed to all of them and
+   * nothing is cached. The fetched value is stored unless {@code key} is invalidated meanwhile.
+   */
+  public CompletionStage<V> getAsync(
+      K key, Function<? super K, ? extends CompletionStage<V>> fetch) {
+    V cached = this.getIfPresent(key);
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+
+    CompletableFuture<V> mine = new CompletableFuture<>();
+    CompletableFuture<V> running = this.inFlight.putIfAbsent(key, mine);
+    if (running != null) {
+      return running.minimalCompletionStage();
+    }
+
+    // a fetch may have finished between the first look and claiming the key
+    V value = this.getIfPresent(key);
+    if (value != null) {
+      this.inFlight.remove(key, mine);
+      mine.complete(value);
+      return mine.minimalCompletionStage();
+    }
+
+    Pending<K> pending = this.begin(key);
+    CompletionStage<V> fetched;
+    try {
+      fetched = fetch.apply(key);
+    } catch (Throwable exec) {
+      this.complete(pending, null);
+      this.inFlight.remove(key, mine);
+      mine.completeExceptionally(exec);
+      throw exec;
+    }
+
+    fetched.whenComplete(
+        (fetchedValue, throwable) -> {
+          this.complete(pending, throwable == null ? fetchedValue : null);
+          this.inFlight.remove(key, mine);
+          if (throwable != null) {
+            mine.completeExceptionally(throwable);
+          } else {
+            mine.complete(fetchedValue);
+          }
+        });
+    return mine.minimalCompletionStage();
+  }
+
+  public V getIfPresent(K key) {
+    synchronized (this.entries) {
+      Entry<V> entry = this.entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+
+      if (this.ticker.getAsLong() - entry.storedAt >= this.ttlNanos) {
+        this.entries.remove(key);
+        return null;
+      }
+
+      return entry.value;
+    }
+  }
+
+  public void put(K key, V value) {
+    if (value == null) {
+      return;
+    }
+
+    synchronized (this.entries) {
+      this.entries.put(key, new Entry<>(value, this.ticker.getAsLong()));
+    }
+  }
+
+  /**
+   * Begins a fetch of {@code key} that is carried out elsewhere, for instance asynchronously. Its
+   * result is stored by {@link #complete}, unless {@code key} is invalidated before then. Every
+   * fetch that is begun must be completed, with {@code null} if it failed.
+   */
+  public Pending<K> begin(K key) {
+    Pending<K> pending = new Pending<>(key);
+    synchronized (this.entries) {
+      this.pending.add(pending);
+    }
+    return pending;
+  }
+
+  /** Stores the result of a fetch begun with {@link #begin}, if its key was not invalidated. */
+  public void complete(Pending<K> pending, V value) {
+    synchronized (this.entries) {
+      this.pending.remove(pending);
+      if (!pending.invalidated) {
+        this.put(pending.key, value);
+      }
+    }
+  }
+
+  public void invalidate(K key) {
+    synchronized (this.entries) {
+      this.entries.remove(key);
+      this.invalidatePending(key::equals);
+    }
+  }
+
+  /** Removes every entry whose key matches {@code filter}. */
+  public void invalidateIf(Predicate<? super K> filter) {
+    synchronized (this.entries) {
+      this.entries.keySet().removeIf(filter);
+      this.invalidatePending(filter);
+    }
+  }
+
+  public void invalidateAll() {
+    synchronized (this.entries) {
+      this.entries.clear();
+      this.invalidatePending(key -> true);
+    }
+  }
+
+  // lookups that start after an invalidation fetch again rather than waiting for a stale fetch
+  private void invalidatePending(Predicate<? super K> filter) {
+    this.inFlight.keySet().removeIf(filter);
+    for (Pending<K> pending : this.pending) {
+      if (filter.test(pending.key)) {
+        pending.invalidated = true;
+      }
+    }
+  }
+
+  public int size() {
+    synchronized (this.entries) {
+      return this.entries.size();
+    }
+  }
+
+  private static <V> V await(CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (CompletionException exec) {
+      if (exec.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exec.getCause();
+      }
+      if (exec.getCause() instanceof Error) {
+        throw (Error) exec.getCause();
+      }
+      throw exec;
+    }
+  }
+
+  /** A fetch in progress, see {@link #begin}. */
+  public static final class Pending<K> {
+    private final K key;
+    private boolean invalidated;
+
+    private Pending(K key) {
+      this.key = key;
+    }
+  }
+
+  private static class Entry<V> {
+    private final V value;
+    private final long storedAt;
+
+    Entry(V value, long storedAt) {
+      this.value = value;
+      this.storedAt = storedAt;
+    }
+  }
+}
@@ -6,7 +6,6 @@ import disparse.parser.Types;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class Help {
 
@@ -123,10 +122,8 @@ public class Help {
   }
 
   public static List<Command> findSubcommands(Command command, Collection<Command> commands) {
-    Predicate<Command> predicate =
-        c ->
-            c.getCommandName().startsWith(command.getCommandName() + ".")
-                && !c.getCommandName().equals(command.getCommandName());
+    String prefix = command.getCommandName() + ".";
+    Predicate<Command> predicate = c -> c.getCommandName().startsWith(prefix);
 
     Comparator<Command> comparator =
         Comparator.comparing(cmd -> cmd.getCommandName().toLowerCase(), Comparator.naturalOrder());
@@ -149,38 +146,41 @@ public class Help {
   public static PaginatedEntities paginate(
       Collection<Command> commands, Collection<CommandFlag> flags, int pageNumber, int pageLimit)
       throws PageNumberOutOfBounds {
+    return paginate(asList(commands), asList(flags), pageNumber, pageLimit);
+  }
+
+  /**
+   * Page {@code pageNumber} of the commands followed by the flags. The page's bounds are worked out
+   * from the sizes of the two lists, and the returned lists are views of them, so a page costs no
+   * more than its own size however many commands and flags there are.
+   */
+  public static PaginatedEntities paginate(
+      List<Command> commands, List<CommandFlag> flags, int pageNumber, int pageLimit)
+      throws PageNumberOutOfBounds {
 
-    int skipNum = (pageNumber - 1) * pageLimit;
     int total = commands.size() + flags.size();
     int pages = (int) Math.ceil((double) (total) / pageLimit);
 
     if (pageNumber > pages || pageNumber < 1) throw new PageNumberOutOfBounds(pageNumber, pages);
 
-    List<Object> entities =
-        Stream.concat(commands.stream(), flags.stream()).skip(skipNum).collect(Collectors.toList());
-
-    int rest = pageLimit;
-
-    if (rest > entities.size()) {
-      rest = entities.size();
-    }
-
-    entities = entities.subList(0, rest);
-
-    List<Command> cmds = new ArrayList<>();
-    List<CommandFlag> flgs = new ArrayList<>();
+    int from = (pageNumber - 1) * pageLimit;
+    int to = Math.min(from + pageLimit, total);
 
-    for (Object entity : entities) {
-      if (entity instanceof Command) {
-        cmds.add((Command) entity);
-      } else if (entity instanceof CommandFlag) {
-        flgs.add((CommandFlag) entity);
-      }
-    }
+    int commandsSize = commands.size();
+    List<Command> cmds =
+        from < commandsSize ? commands.subList(from, Math.min(to, commandsSize)) : List.of();
+    List<CommandFlag> flgs =
+        to > commandsSize
+            ? flags.subList(Math.max(from - commandsSize, 0), to - commandsSize)
+            : List.of();
 
     return new PaginatedEntities(cmds, flgs, pageNumber, pages);
   }
 
+  private static <T> List<T> asList(Collection<T> collection) {
+    return collection instanceof List ? (List<T>) collection : new ArrayList<>(collection);
+  }
+
   public static String flagToUserFriendlyString(CommandFlag flag) {
     String flagName;
     if (flag.getShortName() == null) {
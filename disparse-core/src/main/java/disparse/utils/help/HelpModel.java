@@ -0,0 +1,117 @@
+package disparse.utils.help;
+
+import disparse.parser.Command;
+import disparse.parser.CommandFlag;
+import disparse.parser.CommandTrie;
+import java.util.*;
+
+/**
+ * Everything about the registered commands that help output needs and that does not depend on who
+ * asked for it: the commands in the order they are listed, and for each command its title, sorted
+ * subcommands and sorted flags. Built once when the dispatcher is built.
+ */
+public class HelpModel {
+
+  private final List<Command> commands;
+  private final Map<Command, Integer> indices;
+  private final Map<Command, Entry> entries;
+
+  private HelpModel(List<Command> commands, Map<Command, Entry> entries) {
+    this.commands = commands;
+    this.entries = entries;
+    this.indices = new HashMap<>();
+    for (int i = 0; i < commands.size(); i++) {
+      this.indices.put(commands.get(i), i);
+    }
+  }
+
+  public static HelpModel of(Collection<Command> commands, Map<Command, Set<CommandFlag>> flags) {
+    List<Command> sorted = Collections.unmodifiableList(Help.sortCommands(commands));
+
+    CommandTrie trie = new CommandTrie();
+    sorted.forEach(trie::insert);
+
+    Map<Command, Entry> entries = new HashMap<>();
+    for (Command command : sorted) {
+      entries.put(
+          command,
+          new Entry(
+              command,
+              trie.subcommands(command),
+              Collections.unmodifiableList(Help.sortFlags(flags.getOrDefault(command, Set.of())))));
+    }
+
+    return new HelpModel(sorted, entries);
+  }
+
+  /** Every command, sorted by name. */
+  public List<Command> getCommands() {
+    return commands;
+  }
+
+  /** The entry for {@code command}, or {@code null} if it was not registered. */
+  public Entry get(Command command) {
+    return entries.get(command);
+  }
+
+  /**
+   * Identifies which registered commands are in {@code visible}, so that output rendered for one
+   * set of visible commands can be reused for another request that sees the same set. Returns
+   * {@code null} if one of them was not registered.
+   */
+  public BitSet visibility(Collection<Command> visible) {
+    BitSet bits = new BitSet(this.commands.size());
+    for (Command command : visible) {
+      Integer index = this.indices.get(command);
+      if (index == null) {
+        return null;
+      }
+      bits.set(index);
+    }
+    return bits;
+  }
+
+  public static class Entry {
+    private final String title;
+    private final String descriptionUsage;
+    private final String aliases;
+    private final List<Command> subcommands;
+    private final List<CommandFlag> flags;
+
+    private Entry(Command command, List<Command> subcommands, List<CommandFlag> flags) {
+      this.title = Help.getTitle(command);
+      this.descriptionUsage = Help.getDescriptionUsage(command);
+      this.subcommands = subcommands;
+      this.flags = flags;
+
+      if (command.getAliases().length > 0) {
+        String[] aliases = command.getAliases().clone();
+        Arrays.sort(aliases, Comparator.comparingInt(String::length));
+        this.aliases = String.join(", ", aliases);
+      } else {
+        this.aliases = null;
+      }
+    }
+
+    public String getTitle() {
+      return title;
+    }
+
+    public String getDescriptionUsage() {
+      return descriptionUsage;
+    }
+
+    /** The command's aliases, shortest first, or {@code null} if it has none. */
+    public String getAliases() {
+      return aliases;
+    }
+
+    public List<Command> getSubcommands() {
+      return subcommands;
+    }
+
+    public List<CommandFlag> getFlags() {
+      return flags;
+    }
+  }
+}
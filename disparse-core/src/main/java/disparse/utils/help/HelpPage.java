@@ -0,0 +1,81 @@
+package disparse.utils.help;
+
+import disparse.parser.Command;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The fields of one page of help output, in order, kept apart from any particular embed builder so
+ * that a rendered page can be cached and written out again. A part is either a single field or a
+ * list of commands, which the dispatcher adds to the embed as it always does.
+ */
+public class HelpPage {
+
+  private final List<Part> parts;
+
+  private HelpPage(List<Part> parts) {
+    this.parts = Collections.unmodifiableList(parts);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public List<Part> getParts() {
+    return parts;
+  }
+
+  public static class Part {
+    private final String name;
+    private final String value;
+    private final boolean inline;
+    private final List<Command> commands;
+
+    private Part(String name, String value, boolean inline, List<Command> commands) {
+      this.name = name;
+      this.value = value;
+      this.inline = inline;
+      this.commands = commands;
+    }
+
+    /** Whether this part is a list of commands rather than a single field. */
+    public boolean isCommands() {
+      return commands != null;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getValue() {
+      return value;
+    }
+
+    public boolean isInline() {
+      return inline;
+    }
+
+    public List<Command> getCommands() {
+      return commands;
+    }
+  }
+
+  public static class Builder {
+    private final List<Part> parts = new ArrayList<>();
+
+    public Builder field(String name, String value, boolean inline) {
+      this.parts.add(new Part(name, value, inline, null));
+      return this;
+    }
+
+    public Builder commands(List<Command> commands) {
+      this.parts.add(new Part(null, null, false, List.copyOf(commands)));
+      return this;
+    }
+
+    public HelpPage build() {
+      return new HelpPage(this.parts);
+    }
+  }
+}
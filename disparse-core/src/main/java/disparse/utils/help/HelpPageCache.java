@@ -0,0 +1,100 @@
+package disparse.utils.help;
+
+import disparse.utils.cache.CoalescingCache;
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Rendered help pages, keyed by guild, the command help was asked for, the page, and everything
+ * that decides what the page shows: which commands are visible to the requester, the page limit and
+ * the prefix. Pages of a guild are invalidated when its commands are enabled or disabled, or its
+ * prefix or page limit change.
+ *
+ * <p>The cache is consulted after the requester's commands have been filtered, so a hit saves
+ * rendering the page, not deciding what it shows.
+ */
+public class HelpPageCache {
+
+  private final CoalescingCache<Key, HelpPage> pages;
+
+  public HelpPageCache(Duration ttl, int maxSize) {
+    this.pages = new CoalescingCache<>(ttl, maxSize);
+  }
+
+  /**
+   * @param commandName the command help was asked for, or {@code null} for the list of all commands
+   * @param visible the commands visible to the requester, see {@link HelpModel#visibility}, or
+   *     {@code null} if they are not all registered, in which case the page is rendered and not
+   *     cached
+   */
+  public HelpPage get(
+      String guildId,
+      String commandName,
+      int pageNumber,
+      int pageLimit,
+      String prefix,
+      BitSet visible,
+      Supplier<HelpPage> render) {
+    if (visible == null) {
+      return render.get();
+    }
+    Key key = new Key(guildId, commandName, pageNumber, pageLimit, prefix, visible);
+    return this.pages.get(key, k -> render.get());
+  }
+
+  public void invalidateGuild(String guildId) {
+    this.pages.invalidateIf(key -> Objects.equals(key.guildId, guildId));
+  }
+
+  public void invalidateAll() {
+    this.pages.invalidateAll();
+  }
+
+  public int size() {
+    return this.pages.size();
+  }
+
+  private static class Key {
+    private final String guildId;
+    private final String commandName;
+    private final int pageNumber;
+    private final int pageLimit;
+    private final String prefix;
+    private final BitSet visible;
+
+    Key(
+        String guildId,
+        String commandName,
+        int pageNumber,
+        int pageLimit,
+        String prefix,
+        BitSet visible) {
+      this.guildId = guildId;
+      this.commandName = commandName;
+      this.pageNumber = pageNumber;
+      this.pageLimit = pageLimit;
+      this.prefix = prefix;
+      this.visible = visible;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key key = (Key) o;
+      return pageNumber == key.pageNumber
+          && pageLimit == key.pageLimit
+          && Objects.equals(guildId, key.guildId)
+          && Objects.equals(commandName, key.commandName)
+          && Objects.equals(prefix, key.prefix)
+          && visible.equals(key.visible);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(guildId, commandName, pageNumber, pageLimit, prefix, visible);
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package disparse.utils.help;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A help listing that was sent once and is paged through with reactions. It keeps a snapshot of
+ * what the listing showed when it was asked for, and only renders a page the first time someone
+ * turns to it. Only the member who asked for help can turn its pages. Adapters pass both added and
+ * removed reactions, so a page can be turned again without taking the reaction off first.
+ */
+public class HelpSession<T> {
+
+  public static final String PREVIOUS_PAGE = "\u25c0\ufe0f";
+  public static final String NEXT_PAGE = "\u25b6\ufe0f";
+
+  private final String ownerId;
+  private final int totalPages;
+  private final PageRenderer pages;
+  private final Function<HelpPage, T> toEmbed;
+  private final Map<Integer, T> embeds = new HashMap<>();
+
+  private int currentPage;
+
+  /**
+   * @param currentEmbed the embed of the page that was sent
+   * @param pages renders a page of the snapshot, which is called the first time a page is turned to
+   * @param toEmbed builds the embed that shows a rendered page; it must not keep the event help was
+   *     asked for in, as the session outlives it
+   */
+  public HelpSession(
+      String ownerId,
+      PaginatedEntities current,
+      T currentEmbed,
+      PageRenderer pages,
+      Function<HelpPage, T> toEmbed) {
+    this.ownerId = ownerId;
+    this.currentPage = current.getCurrPage();
+    this.totalPages = current.getTotalPages();
+    this.pages = pages;
+    this.toEmbed = toEmbed;
+    this.embeds.put(this.currentPage, currentEmbed);
+  }
+
+  /**
+   * Turns the page if {@code reaction} is {@link #PREVIOUS_PAGE} or {@link #NEXT_PAGE} and was
+   * added or removed by the owner of the session. Returns the embed of the page turned to, or
+   * {@code null} if the page did not change.
+   */
+  public synchronized T turn(String userId, String reaction) {
+    if (!Objects.equals(this.ownerId, userId) || reaction == null) return null;
+
+    int pageNumber;
+    String emoji = stripVariation(reaction);
+    if (emoji.equals(stripVariation(PREVIOUS_PAGE))) {
+      pageNumber = this.currentPage - 1;
+    } else if (emoji.equals(stripVariation(NEXT_PAGE))) {
+      pageNumber = this.currentPage + 1;
+    } else {
+      return null;
+    }
+
+    if (pageNumber < 1 || pageNumber > this.totalPages) return null;
+
+    T embed = this.embeds.get(pageNumber);
+    if (embed == null) {
+      try {
+        embed = this.toEmbed.apply(this.pages.render(pageNumber));
+      } catch (PageNumberOutOfBounds pageNumberOutOfBounds) {
+        return null;
+      }
+      this.embeds.put(pageNumber, embed);
+    }
+
+    this.currentPage = pageNumber;
+    return embed;
+  }
+
+  public synchronized int getCurrentPage() {
+    return currentPage;
+  }
+
+  public int getTotalPages() {
+    return totalPages;
+  }
+
+  // Discord sends unicode reactions with or without the emoji variation selector
+  private static String stripVariation(String emoji) {
+    return emoji.replace("\ufe0f", "");
+  }
+
+  @FunctionalInterface
+  public interface PageRenderer {
+    HelpPage render(int pageNumber) throws PageNumberOutOfBounds;
+  }
+}
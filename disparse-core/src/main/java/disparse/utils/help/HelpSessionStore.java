@@ -0,0 +1,45 @@
+package disparse.utils.help;
+
+import disparse.utils.cache.CoalescingCache;
+import java.time.Duration;
+
+/**
+ * The {@link HelpSession}s that can still be paged through, keyed by the id of the message that
+ * shows them. A session is dropped once it has not been turned for the time to live, or when the
+ * store is full and it is the oldest.
+ */
+public class HelpSessionStore<T> {
+
+  private final CoalescingCache<String, HelpSession<T>> sessions;
+
+  public HelpSessionStore(Duration ttl, int maxSize) {
+    this.sessions = new CoalescingCache<>(ttl, maxSize);
+  }
+
+  public void put(String messageId, HelpSession<T> session) {
+    this.sessions.put(messageId, session);
+  }
+
+  /**
+   * Turns the page of the session shown by {@code messageId}, see {@link HelpSession#turn}. Turning
+   * a page keeps the session alive for another time to live.
+   */
+  public T turn(String messageId, String userId, String reaction) {
+    HelpSession<T> session = this.sessions.getIfPresent(messageId);
+    if (session == null) return null;
+
+    T embed = session.turn(userId, reaction);
+    if (embed != null) {
+      this.sessions.put(messageId, session);
+    }
+    return embed;
+  }
+
+  public void invalidate(String messageId) {
+    this.sessions.invalidate(messageId);
+  }
+
+  public void invalidateAll() {
+    this.sessions.invalidateAll();
+  }
+}
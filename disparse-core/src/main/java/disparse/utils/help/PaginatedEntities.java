@@ -7,13 +7,15 @@ import java.util.List;
 public class PaginatedEntities {
   private List<Command> commands;
   private List<CommandFlag> flags;
-  private String currentlyViewing;
+  private int currPage;
+  private int totalPages;
 
   public PaginatedEntities(
       List<Command> commands, List<CommandFlag> flags, int currPage, int totalPages) {
     this.commands = commands;
     this.flags = flags;
-    this.currentlyViewing = String.format("Currently viewing page %d of %d", currPage, totalPages);
+    this.currPage = currPage;
+    this.totalPages = totalPages;
   }
 
   public List<Command> getCommands() {
@@ -24,7 +26,15 @@ public class PaginatedEntities {
     return flags;
   }
 
+  public int getCurrPage() {
+    return currPage;
+  }
+
+  public int getTotalPages() {
+    return totalPages;
+  }
+
   public String getCurrentlyViewing() {
-    return currentlyViewing;
+    return String.format("Currently viewing page %d of %d", currPage, totalPages);
   }
 }
@@ -10,5 +10,6 @@ module disparse.core {
   exports disparse.parser.exceptions;
   exports disparse.parser.reflection;
   exports disparse.utils;
+  exports disparse.utils.cache;
   exports disparse.utils.help;
 }
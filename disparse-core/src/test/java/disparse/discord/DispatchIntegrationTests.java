@@ -58,6 +58,11 @@ public class DispatchIntegrationTests {
     req.getDispatcher().sendMessage(null, "test");
   }
 
+  @CommandHandler(commandName = "admin", roles = "admin")
+  public static TestDiscordResponse admin() {
+    return TestDiscordResponse.of("admin");
+  }
+
   @CommandHandler(commandName = "discordresponse")
   public static TestDiscordResponse discordResponse() {
     return TestDiscordResponse.of("sent");
@@ -94,11 +99,12 @@ public class DispatchIntegrationTests {
   @BeforeEach
   public void beforeEach() {
     this.globalDispatcher =
-        new TestDispatcher.Builder(this.getClass())
-            .prefix(PREFIX)
-            .pageLimit(PAGE_LIMIT)
-            .description(DESCRIPTION)
-            .build();
+        require(DispatchIntegrationTests.class)
+            .build(
+                new TestDispatcher.Builder(DispatchIntegrationTests.class)
+                    .prefix(PREFIX)
+                    .pageLimit(PAGE_LIMIT)
+                    .description(DESCRIPTION));
   }
 
   @Test
@@ -113,6 +119,12 @@ public class DispatchIntegrationTests {
     given("!test a b c").expect("test", "a", "b", "c").execute(dispatcher);
   }
 
+  @Test
+  public void testQuotedArgumentsAreSent() {
+    TestDispatcher dispatcher = require(DispatchIntegrationTests.class).build();
+    given("!test \"a b\"  'c\\d' e\\ f").expect("test", "a b", "c\\d", "e f").execute(dispatcher);
+  }
+
   @Test
   public void testSingleSubcommandIsSent() {
     TestDispatcher dispatcher = require(DispatchIntegrationTests.class).build();
@@ -170,6 +182,30 @@ public class DispatchIntegrationTests {
         .execute(dispatcher);
   }
 
+  @Test
+  public void testDisabledCommandIsDropped() {
+    TestDispatcher dispatcher = require(DispatchIntegrationTests.class).build();
+    dispatcher.disableCommand(null, "test");
+    given("!test a b c")
+        .thenGiven("!unknown")
+        .expect(
+            "`unknown` is not a valid command!",
+            "Use !help to get a list of all available commands.")
+        .execute(dispatcher);
+  }
+
+  @Test
+  public void testRoleIsCheckedBeforeADisabledCommandIsDropped() {
+    TestDispatcher dispatcher = require(DispatchIntegrationTests.class).build();
+    Command admin = new Command("admin", "");
+
+    given("!admin").expect(Help.roleNotMet(admin)).execute(dispatcher);
+
+    dispatcher.getMessages().clear();
+    dispatcher.disableCommand(null, "admin");
+    given("!admin").expect(Help.roleNotMet(admin)).execute(dispatcher);
+  }
+
   @Test
   public void testCommandReturnDiscordResponseStringVariant() {
     TestDispatcher dispatcher = require(DispatchIntegrationTests.class).build();
@@ -0,0 +1,43 @@
+package disparse.discord;
+
+import static disparse.test.Dispatch.require;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class EventContextTest {
+
+  private static final EventContext.Key<String> KEY = new EventContext.Key<>("key");
+
+  @Test
+  public void testValuesAreComputedOnce() {
+    EventContext context = new EventContext();
+    AtomicInteger computed = new AtomicInteger();
+
+    for (int i = 0; i < 100; i++) {
+      context.get(
+          KEY,
+          () -> {
+            computed.incrementAndGet();
+            return null;
+          });
+    }
+
+    Assertions.assertEquals(1, computed.get());
+    Assertions.assertNull(context.get(KEY, () -> "other"));
+  }
+
+  @Test
+  public void testContextIsReleasedWhenDispatchCompletes() {
+    TestDispatcher dispatcher = require(EventContextTest.class).build();
+    Object event = new Object();
+
+    EventContext context = dispatcher.contextOf(event);
+    Assertions.assertSame(context, dispatcher.contextOf(event));
+    Assertions.assertEquals("GUILD", dispatcher.guildOf(event));
+
+    dispatcher.dispatchComplete(event);
+    Assertions.assertNotSame(context, dispatcher.contextOf(event));
+  }
+}
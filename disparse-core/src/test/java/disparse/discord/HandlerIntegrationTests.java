@@ -0,0 +1,298 @@
+package disparse.discord;
+
+import static disparse.test.Dispatch.require;
+import static disparse.test.io.IO.given;
+
+import disparse.discord.manager.ExecutionManager;
+import disparse.discord.manager.provided.StripedExecutionManager;
+import disparse.parser.dispatch.HandlerScope;
+import disparse.parser.reflection.*;
+import disparse.utils.help.HelpSession;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HandlerIntegrationTests {
+
+  private static final String TAIL = "no description available|false";
+  private static final String REACT =
+      "React with "
+          + HelpSession.PREVIOUS_PAGE
+          + " or "
+          + HelpSession.NEXT_PAGE
+          + " to turn the page";
+
+  @CommandHandler(commandName = "async")
+  @Cooldown(amount = 1, unit = ChronoUnit.HOURS, messageStrategy = MessageStrategy.MESSAGE)
+  public static CompletableFuture<TestDiscordResponse> async() {
+    return CompletableFuture.supplyAsync(() -> TestDiscordResponse.of("async"));
+  }
+
+  @CommandHandler(commandName = "convert")
+  public static TestDiscordResponse convert(TestDiscordRequest req, ConvertOpts opts) {
+    if (opts.number != null) {
+      req.getDispatcher().sendMessage(null, String.valueOf(opts.number + 1));
+    }
+
+    if (opts.color != null) {
+      req.getDispatcher().sendMessage(null, opts.color.name());
+    }
+
+    return TestDiscordResponse.noop();
+  }
+
+  @CommandHandler(commandName = "thread")
+  public static TestDiscordResponse thread() {
+    return TestDiscordResponse.of(Thread.currentThread().getName());
+  }
+
+  private static TestDispatcher paged() {
+    return require(HandlerIntegrationTests.class)
+        .build(
+            new TestDispatcher.Builder(HandlerIntegrationTests.class)
+                .pageLimit(2)
+                .withReactionPagination(Duration.ofMinutes(1), 10));
+  }
+
+  @Test
+  public void testAsyncResponseIsSentAndCooldownRecordedOnCompletion() {
+    TestDispatcher dispatcher = require(HandlerIntegrationTests.class).build();
+    given("!async")
+        .thenAwait()
+        .thenGiven("!async")
+        .expect("async", "This command has a per-user cooldown!")
+        .execute(dispatcher);
+  }
+
+  @Test
+  public void testHandlerRunsOnTheContinuationsOfTheExecutionManager() {
+    ExecutorService continuations =
+        Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "continuations"));
+    ExecutionManager<Object, StringBuilder> manager =
+        new ExecutionManager<>() {
+          @Override
+          public void execute(
+              Object event, AbstractDispatcher<Object, StringBuilder> dispatcher, Runnable task) {
+            task.run();
+          }
+
+          @Override
+          public Executor continuations(
+              Object event, AbstractDispatcher<Object, StringBuilder> dispatcher) {
+            return continuations;
+          }
+        };
+
+    TestDispatcher dispatcher =
+        require(HandlerIntegrationTests.class)
+            .build(
+                new TestDispatcher.Builder(HandlerIntegrationTests.class)
+                    .withExecutionManager(manager));
+    try {
+      // checks that are already complete carry on where they are
+      dispatcher.enqueue(new Object(), "!thread");
+      Assertions.assertEquals(List.of(Thread.currentThread().getName()), dispatcher.getMessages());
+
+      // checks that complete later hop back onto the execution manager
+      Object event = new Object();
+      CompletableFuture<Boolean> check = new CompletableFuture<>();
+      dispatcher.delayCheck(event, check);
+      dispatcher.enqueue(event, "!thread");
+      check.complete(false);
+      dispatcher.awaitDispatched();
+      Assertions.assertEquals(
+          List.of(Thread.currentThread().getName(), "continuations"), dispatcher.getMessages());
+    } finally {
+      continuations.shutdown();
+    }
+  }
+
+  @Test
+  public void testCommandsOfAChannelAreAnsweredInOrderWhenAnEarlierCheckIsDelayed() {
+    TestDispatcher dispatcher =
+        require(HandlerIntegrationTests.class)
+            .build(
+                new TestDispatcher.Builder(HandlerIntegrationTests.class)
+                    .withStripedExecution(StripedExecutionManager.Key.CHANNEL, 1, 10));
+
+    Object first = new Object();
+    CompletableFuture<Boolean> check = new CompletableFuture<>();
+    dispatcher.delayCheck(first, check);
+    dispatcher.enqueue(first, "!convert -n 1");
+    dispatcher.enqueue(new Object(), "!convert -n 2");
+    check.completeAsync(() -> false, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+
+    dispatcher.awaitDispatched();
+    Assertions.assertEquals(List.of("2", "3"), dispatcher.getMessages());
+  }
+
+  @Test
+  public void testIntFlagIsConverted() {
+    TestDispatcher dispatcher = require(HandlerIntegrationTests.class).build();
+    given("!convert -n 41").expect("42").execute(dispatcher);
+  }
+
+  @Test
+  public void testIntFlagRequiresInt() {
+    TestDispatcher dispatcher = require(HandlerIntegrationTests.class).build();
+    given("!convert --number abc")
+        .expect("`-n | --number` requires an integer value!  Received:  `abc`")
+        .execute(dispatcher);
+  }
+
+  @Test
+  public void testEnumFlagChoiceIsMapped() {
+    TestDispatcher dispatcher = require(HandlerIntegrationTests.class).build();
+    given("!convert --color red").expect("RED").execute(dispatcher);
+  }
+
+  @Test
+  public void testEnumFlagIncorrectOption() {
+    TestDispatcher dispatcher = require(HandlerIntegrationTests.class).build();
+    given("!convert --color purple")
+        .expect("`purple` is not a valid option for the enum flag:  `color`", "Pick from:  `red`")
+        .execute(dispatcher);
+  }
+
+  @Test
+  public void testInstanceHandlerSharesArgumentsWithConstructor() {
+    TestDispatcher dispatcher = require(HandlerIntegrationTests.class).build();
+    given("!instance -n 1").expect("true").execute(dispatcher);
+  }
+
+  @Test
+  public void testSingletonHandlerIsReused() {
+    TestDispatcher dispatcher = require(HandlerIntegrationTests.class).build();
+    given("!counter").thenGiven("!counter").expect("1", "2").execute(dispatcher);
+  }
+
+  @Test
+  public void testHelpAllCommandsIsCachedUntilACommandIsDisabled() {
+    TestDispatcher dispatcher = paged();
+
+    dispatcher.dispatch("!help");
+    List<String> first = List.copyOf(dispatcher.getMessages());
+    Assertions.assertEquals(1, dispatcher.helpPages.size());
+
+    dispatcher.getMessages().clear();
+    dispatcher.dispatch("!help");
+    Assertions.assertEquals(first, dispatcher.getMessages());
+    Assertions.assertEquals(1, dispatcher.helpPages.size());
+
+    dispatcher.getMessages().clear();
+    dispatcher.disableCommand(null, "async");
+    Assertions.assertEquals(0, dispatcher.helpPages.size());
+
+    given("!help")
+        .expect(
+            String.join("|", "title", "All Commands"),
+            "description|All registered commands",
+            String.join("|", "**convert**", TAIL),
+            String.join("|", "**counter**", TAIL),
+            String.join("|", "Currently viewing page 1 of 3", REACT, "false"))
+        .execute(dispatcher);
+    Assertions.assertEquals(1, dispatcher.helpPages.size());
+  }
+
+  @Test
+  public void testHelpAllCommandsPagesAreTurnedWithReactions() {
+    TestDispatcher dispatcher = paged();
+
+    dispatcher.dispatch("!help");
+    Assertions.assertEquals(5, dispatcher.getMessages().size());
+
+    Assertions.assertNull(dispatcher.turnHelpPage("MESSAGE", "USER", HelpSession.PREVIOUS_PAGE));
+    Assertions.assertNull(dispatcher.turnHelpPage("MESSAGE", "OTHER", HelpSession.NEXT_PAGE));
+    Assertions.assertNull(dispatcher.turnHelpPage("UNKNOWN", "USER", HelpSession.NEXT_PAGE));
+
+    StringBuilder page = dispatcher.turnHelpPage("MESSAGE", "USER", HelpSession.NEXT_PAGE);
+    Assertions.assertEquals(
+        List.of(
+            String.join("|", "title", "All Commands"),
+            "description|All registered commands",
+            String.join("|", "**counter**", TAIL),
+            String.join(
+                "|", "**help**", "show all commands or detailed help of one command", "false"),
+            String.join("|", "Currently viewing page 2 of 3", REACT, "false")),
+        List.of(page.toString().split("\\n")));
+    Assertions.assertEquals(5, dispatcher.getMessages().size());
+
+    StringBuilder first = dispatcher.turnHelpPage("MESSAGE", "USER", HelpSession.PREVIOUS_PAGE);
+    Assertions.assertEquals(dispatcher.getMessages(), List.of(first.toString().split("\\n")));
+    Assertions.assertSame(page, dispatcher.turnHelpPage("MESSAGE", "USER", HelpSession.NEXT_PAGE));
+  }
+
+  @Test
+  public void testHelpBaseEmbedIsMadeOnceForTheWholeListing() {
+    AtomicInteger bases = new AtomicInteger();
+    TestDispatcher dispatcher =
+        require(HandlerIntegrationTests.class)
+            .build(
+                new TestDispatcher.Builder(HandlerIntegrationTests.class)
+                    .pageLimit(2)
+                    .withReactionPagination(Duration.ofMinutes(1), 10)
+                    .withHelpBaseEmbedManager(
+                        (event, d) -> new StringBuilder("base " + bases.incrementAndGet() + "\n")));
+
+    dispatcher.dispatch("!help");
+    Assertions.assertEquals("base 1", dispatcher.getMessages().get(0));
+
+    StringBuilder second = dispatcher.turnHelpPage("MESSAGE", "USER", HelpSession.NEXT_PAGE);
+    StringBuilder third = dispatcher.turnHelpPage("MESSAGE", "USER", HelpSession.NEXT_PAGE);
+    Assertions.assertTrue(second.toString().startsWith("base 1\ntitle|All Commands\n"));
+    Assertions.assertTrue(third.toString().startsWith("base 1\ntitle|All Commands\n"));
+    Assertions.assertTrue(third.toString().contains("page 3 of 3"));
+    Assertions.assertEquals(1, bases.get());
+  }
+
+  static class InstanceHandler {
+    private final TestDiscordRequest req;
+    private final ConvertOpts opts;
+
+    InstanceHandler() {
+      this(null, null);
+    }
+
+    InstanceHandler(TestDiscordRequest req, ConvertOpts opts) {
+      this.req = req;
+      this.opts = opts;
+    }
+
+    @CommandHandler(commandName = "instance")
+    public void instance(TestDiscordRequest req, ConvertOpts opts) {
+      req.getDispatcher().sendMessage(null, String.valueOf(this.req == req && this.opts == opts));
+    }
+  }
+
+  static class CounterHandler {
+    private int count = 0;
+
+    @CommandHandler(commandName = "counter", handlerScope = HandlerScope.SINGLETON)
+    public void counter(TestDiscordRequest req) {
+      req.getDispatcher().sendMessage(null, String.valueOf(++count));
+    }
+  }
+
+  @ParsedEntity
+  static class ConvertOpts {
+    @Flag(shortName = 'n', longName = "number")
+    Integer number;
+
+    @Flag(
+        longName = "color",
+        choices = {@ChoiceMapping(userChoice = "red", mapTo = "RED")})
+    Color color;
+  }
+
+  enum Color {
+    RED
+  }
+}
@@ -0,0 +1,135 @@
+package disparse.discord;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MemberAccessCacheTest {
+
+  private MemberAccessCache cache;
+  private AtomicInteger resolved;
+
+  @BeforeEach
+  public void beforeEach() {
+    this.cache = new MemberAccessCache(Duration.ofMinutes(1), 100);
+    this.resolved = new AtomicInteger();
+  }
+
+  @Test
+  public void testRepeatedLookupsResolveOnce() {
+    this.get("guild", "member", "channel");
+    this.get("guild", "member", "channel");
+    this.get("guild", "member", "other");
+
+    Assertions.assertEquals(2, this.resolved.get());
+  }
+
+  @Test
+  public void testInvalidation() {
+    this.get("guild", "member", "channel");
+    this.get("guild", "other", "channel");
+    this.get("elsewhere", "member", "another");
+
+    this.cache.invalidateMember("guild", "member");
+    Assertions.assertNull(this.cache.getIfPresent("guild", "member", "channel"));
+    Assertions.assertNotNull(this.cache.getIfPresent("guild", "other", "channel"));
+
+    this.cache.invalidateChannel("channel");
+    Assertions.assertNull(this.cache.getIfPresent("guild", "other", "channel"));
+
+    this.cache.invalidateGuild("elsewhere");
+    Assertions.assertNull(this.cache.getIfPresent("elsewhere", "member", "another"));
+  }
+
+  @Test
+  public void testRolesMatchIgnoringCase() {
+    MemberAccessCache.Access access = new MemberAccessCache.Access(List.of("Moderator"), true, 0);
+
+    Assertions.assertTrue(access.hasAnyRole(new String[] {"admin", "moderator"}));
+    Assertions.assertTrue(access.hasAnyRole(new String[] {"Owner"}));
+    Assertions.assertFalse(access.hasAnyRole(new String[] {"admin"}));
+  }
+
+  @Test
+  public void testAccessInvalidatedWhileResolvingIsNotCached() {
+    MemberAccessCache.Access access = new MemberAccessCache.Access(List.of(), false, 0);
+
+    CompletableFuture<MemberAccessCache.Access> stale = new CompletableFuture<>();
+    CompletionStage<MemberAccessCache.Access> first =
+        this.cache.getAsync("guild", "member", "channel", () -> stale);
+    this.cache.invalidateMember("guild", "member");
+    stale.complete(access);
+
+    Assertions.assertSame(access, first.toCompletableFuture().join());
+    Assertions.assertNull(this.cache.getIfPresent("guild", "member", "channel"));
+
+    CompletableFuture<MemberAccessCache.Access> fresh = new CompletableFuture<>();
+    this.cache.getAsync("guild", "member", "channel", () -> fresh);
+    this.cache.invalidateMember("guild", "other");
+    fresh.complete(access);
+
+    Assertions.assertSame(access, this.cache.getIfPresent("guild", "member", "channel"));
+  }
+
+  @Test
+  public void testOverlappingAsyncLookupsResolveOnce() {
+    MemberAccessCache.Access access = new MemberAccessCache.Access(List.of(), false, 0);
+    CompletableFuture<MemberAccessCache.Access> resolving = new CompletableFuture<>();
+
+    CompletionStage<MemberAccessCache.Access> first = this.getAsync(resolving);
+    CompletionStage<MemberAccessCache.Access> second = this.getAsync(resolving);
+    Assertions.assertEquals(1, this.resolved.get());
+    Assertions.assertFalse(second.toCompletableFuture().isDone());
+
+    resolving.complete(access);
+    Assertions.assertSame(access, first.toCompletableFuture().join());
+    Assertions.assertSame(access, second.toCompletableFuture().join());
+    Assertions.assertSame(access, this.getAsync(resolving).toCompletableFuture().join());
+    Assertions.assertEquals(1, this.resolved.get());
+  }
+
+  @Test
+  public void testAsyncLookupAfterInvalidationResolvesAgain() {
+    CompletableFuture<MemberAccessCache.Access> stale = new CompletableFuture<>();
+    this.getAsync(stale);
+    this.cache.invalidateMember("guild", "member");
+
+    CompletableFuture<MemberAccessCache.Access> fresh = new CompletableFuture<>();
+    CompletionStage<MemberAccessCache.Access> lookup = this.getAsync(fresh);
+    Assertions.assertEquals(2, this.resolved.get());
+
+    MemberAccessCache.Access access = new MemberAccessCache.Access(List.of(), false, 0);
+    fresh.complete(access);
+    stale.complete(new MemberAccessCache.Access(List.of(), false, 0));
+    Assertions.assertSame(access, lookup.toCompletableFuture().join());
+    Assertions.assertSame(access, this.cache.getIfPresent("guild", "member", "channel"));
+  }
+
+  private CompletionStage<MemberAccessCache.Access> getAsync(
+      CompletionStage<MemberAccessCache.Access> resolving) {
+    return this.cache.getAsync(
+        "guild",
+        "member",
+        "channel",
+        () -> {
+          this.resolved.incrementAndGet();
+          return resolving;
+        });
+  }
+
+  private MemberAccessCache.Access get(String guildId, String memberId, String channelId) {
+    return this.cache.get(
+        guildId,
+        memberId,
+        channelId,
+        () -> {
+          this.resolved.incrementAndGet();
+          return new MemberAccessCache.Access(List.of(), false, 0);
+        });
+  }
+}
@@ -0,0 +1,98 @@
+package disparse.discord;
+
+import disparse.parser.Command;
+import disparse.parser.dispatch.CooldownScope;
+import disparse.parser.dispatch.IncomingScope;
+import disparse.parser.reflection.MessageStrategy;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PermissionEnumConverterTest {
+
+  private static final PermissionEnumConverter<Bit> CONVERTER =
+      new PermissionEnumConverter<>() {
+        @Override
+        public Bit into(AbstractPermission permission) {
+          switch (permission) {
+            case BAN_MEMBERS:
+              return Bit.BAN;
+            case KICK_MEMBERS:
+              return Bit.KICK;
+            default:
+              return null;
+          }
+        }
+
+        @Override
+        public AbstractPermission from(Bit permission) {
+          return permission == Bit.BAN ? AbstractPermission.BAN_MEMBERS : null;
+        }
+
+        @Override
+        public long bit(Bit permission) {
+          return permission.value;
+        }
+      };
+
+  @Test
+  public void testMaskCombinesTheBitsOfMappedPermissions() {
+    Assertions.assertEquals(
+        0b110,
+        CONVERTER.mask(
+            new AbstractPermission[] {
+              AbstractPermission.BAN_MEMBERS,
+              AbstractPermission.KICK_MEMBERS,
+              AbstractPermission.VOICE_SPEAK
+            }));
+  }
+
+  @Test
+  public void testMaskOfUnmappedPermissionsIsEmpty() {
+    Assertions.assertEquals(
+        0, CONVERTER.mask(new AbstractPermission[] {AbstractPermission.VOICE_SPEAK}));
+  }
+
+  @Test
+  public void testDispatcherMasksCommandsWithItsConverter() {
+    TestDispatcher dispatcher =
+        new TestDispatcher("!", 6, "") {
+          @Override
+          protected PermissionEnumConverter<?> permissionConverter() {
+            return CONVERTER;
+          }
+        };
+
+    Assertions.assertEquals(
+        0b10, dispatcher.permissionMask(command("ban", AbstractPermission.BAN_MEMBERS)));
+    Assertions.assertEquals(
+        0, dispatcher.permissionMask(command("speak", AbstractPermission.VOICE_SPEAK)));
+  }
+
+  private static Command command(String name, AbstractPermission... perms) {
+    return new Command(
+        name,
+        "",
+        new String[] {},
+        true,
+        Duration.ZERO,
+        CooldownScope.USER,
+        MessageStrategy.SILENT,
+        IncomingScope.ALL,
+        new String[] {},
+        perms,
+        List.of());
+  }
+
+  private enum Bit {
+    BAN(0b10),
+    KICK(0b100);
+
+    private final long value;
+
+    Bit(long value) {
+      this.value = value;
+    }
+  }
+}
@@ -5,18 +5,28 @@ import disparse.utils.Shlex;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public class TestDispatcher extends AbstractDispatcher<Object, StringBuilder> {
 
-  List<String> messages = new ArrayList<>();
+  List<String> messages = Collections.synchronizedList(new ArrayList<>());
+  private final Map<Object, CompletableFuture<Void>> dispatching = new ConcurrentHashMap<>();
+  private final Map<Object, CompletionStage<Boolean>> delayedChecks = new ConcurrentHashMap<>();
 
   protected TestDispatcher(String prefix, int pageLimit, String description) {
     super(prefix, pageLimit, description);
+    // commands are dispatched on the calling thread, so let their continuations run there too
+    this.executionManager = (event, dispatcher, task) -> task.run();
   }
 
   @Override
   public boolean commandRolesNotMet(Object event, Command command) {
-    return false;
+    // the test user has no roles
+    return command.getRoles().length > 0;
   }
 
   @Override
@@ -49,11 +59,22 @@ public class TestDispatcher extends AbstractDispatcher<Object, StringBuilder> {
     return new StringBuilder();
   }
 
+  @Override
+  public StringBuilder copyBuilder(StringBuilder builder) {
+    return new StringBuilder(builder);
+  }
+
   @Override
   public void sendEmbed(Object event, StringBuilder builder) {
     Collections.addAll(this.messages, builder.toString().split("\\n"));
   }
 
+  @Override
+  protected CompletionStage<String> sendPagedEmbed(Object event, StringBuilder builder) {
+    this.sendEmbed(event, builder);
+    return CompletableFuture.completedFuture("MESSAGE");
+  }
+
   @Override
   public String identityFromEvent(Object event) {
     return "USER";
@@ -90,19 +111,66 @@ public class TestDispatcher extends AbstractDispatcher<Object, StringBuilder> {
   }
 
   public void dispatch(String raw) {
+    Object event = new Object();
+    List<String> args = this.args(raw, event);
+    if (args == null) return;
+
+    this.dispatching.put(event, new CompletableFuture<>());
+    this.registrar.dispatch(args, this, event);
+  }
+
+  /** Dispatches {@code raw} through the execution manager, like messages from Discord are. */
+  public void enqueue(Object event, String raw) {
+    List<String> args = this.args(raw, event);
+    if (args == null) return;
+
+    this.dispatching.put(event, new CompletableFuture<>());
+    this.enqueue(event, args);
+  }
+
+  private List<String> args(String raw, Object event) {
     String currentPrefix = this.prefixManager.prefixForGuild(null, this);
     if (!raw.startsWith(currentPrefix)) {
-      return;
+      return null;
     }
 
     String cleanedMessage = raw.substring(currentPrefix.length());
 
     if (cleanedMessage.isEmpty()) {
-      return;
+      return null;
     }
 
     List<String> args = Shlex.shlex(cleanedMessage);
-    this.registrar.dispatch(args, this, new Object());
+    if (!this.registrar.canDispatch(args, this, event)) return null;
+
+    return args;
+  }
+
+  /** Makes the role check of {@code event} complete with {@code check}, not straight away. */
+  public void delayCheck(Object event, CompletionStage<Boolean> check) {
+    this.delayedChecks.put(event, check);
+  }
+
+  @Override
+  public CompletionStage<Boolean> commandRolesNotMetAsync(Object event, Command command) {
+    CompletionStage<Boolean> check = this.delayedChecks.get(event);
+    return check != null ? check : super.commandRolesNotMetAsync(event, command);
+  }
+
+  @Override
+  public void dispatchComplete(Object event) {
+    super.dispatchComplete(event);
+    CompletableFuture<Void> dispatched = this.dispatching.remove(event);
+    if (dispatched != null) {
+      dispatched.complete(null);
+    }
+  }
+
+  /** Waits until every command dispatched so far is complete, see {@link #dispatchComplete}. */
+  public void awaitDispatched() {
+    CompletableFuture<?>[] dispatched =
+        this.dispatching.values().toArray(CompletableFuture<?>[]::new);
+    CompletableFuture.allOf(dispatched).orTimeout(5, TimeUnit.SECONDS).join();
   }
 
   @Override
@@ -0,0 +1,106 @@
+package disparse.discord.manager.provided;
+
+import static disparse.test.Dispatch.require;
+
+import disparse.discord.TestDispatcher;
+import disparse.discord.manager.ExecutionManager;
+import disparse.parser.reflection.MessageStrategy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BoundedExecutionManagerTest {
+
+  private TestDispatcher dispatcher;
+  private List<Runnable> queued;
+  private List<String> ran;
+  private ExecutionManager<Object, StringBuilder> delegate;
+
+  @BeforeEach
+  public void beforeEach() {
+    this.dispatcher = require(BoundedExecutionManagerTest.class).build();
+    this.queued = new ArrayList<>();
+    this.ran = new ArrayList<>();
+    this.delegate = (event, dispatcher, task) -> this.queued.add(task);
+  }
+
+  @Test
+  public void testRejectNewestDropsIncomingCommand() {
+    BoundedExecutionManager<Object, StringBuilder> manager =
+        new BoundedExecutionManager<>(
+            this.delegate,
+            2,
+            BoundedExecutionManager.Policy.REJECT_NEWEST,
+            0,
+            MessageStrategy.MESSAGE);
+
+    this.submit(manager, "a", "b", "c");
+
+    Assertions.assertEquals(2, manager.queueDepth());
+    Assertions.assertEquals(1, manager.droppedCount());
+    Assertions.assertEquals(1, this.dispatcher.getMessages().size());
+
+    this.queued.forEach(Runnable::run);
+    Assertions.assertEquals(List.of("a", "b"), this.ran);
+    Assertions.assertEquals(0, manager.queueDepth());
+  }
+
+  @Test
+  public void testDropOldestDropsLongestWaitingCommand() {
+    BoundedExecutionManager<Object, StringBuilder> manager =
+        new BoundedExecutionManager<>(this.delegate, 2, BoundedExecutionManager.Policy.DROP_OLDEST);
+
+    this.submit(manager, "a", "b", "c");
+    this.queued.forEach(Runnable::run);
+
+    Assertions.assertEquals(List.of("b", "c"), this.ran);
+    Assertions.assertEquals(1, manager.droppedCount());
+    Assertions.assertTrue(this.dispatcher.getMessages().isEmpty());
+  }
+
+  @Test
+  public void testGuildQuotaDropsCommandsOverQuota() {
+    BoundedExecutionManager<Object, StringBuilder> manager =
+        new BoundedExecutionManager<>(
+            this.delegate,
+            10,
+            BoundedExecutionManager.Policy.DROP_OLDEST,
+            1,
+            MessageStrategy.REACT);
+
+    this.submit(manager, "a", "b");
+    this.queued.forEach(Runnable::run);
+    this.submit(manager, "c");
+    this.queued.forEach(Runnable::run);
+
+    Assertions.assertEquals(List.of("a", "c"), this.ran);
+    Assertions.assertEquals(List.of("\u23F3"), this.dispatcher.getMessages());
+  }
+
+  @Test
+  public void testCommandRejectedByDelegateGivesUpItsPlace() {
+    ExecutionManager<Object, StringBuilder> rejecting =
+        (event, dispatcher, task) -> {
+          throw new RejectedExecutionException();
+        };
+    BoundedExecutionManager<Object, StringBuilder> manager =
+        new BoundedExecutionManager<>(
+            rejecting, 1, BoundedExecutionManager.Policy.REJECT_NEWEST, 0, MessageStrategy.MESSAGE);
+
+    this.submit(manager, "a", "b");
+
+    Assertions.assertEquals(0, manager.queueDepth());
+    Assertions.assertEquals(2, manager.droppedCount());
+    Assertions.assertEquals(2, this.dispatcher.getMessages().size());
+    Assertions.assertTrue(this.ran.isEmpty());
+  }
+
+  private void submit(BoundedExecutionManager<Object, StringBuilder> manager, String... names) {
+    for (String name : names) {
+      manager.execute(new Object(), this.dispatcher, () -> this.ran.add(name));
+    }
+  }
+}
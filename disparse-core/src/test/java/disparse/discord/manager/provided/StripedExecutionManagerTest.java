@@ -0,0 +1,42 @@
+package disparse.discord.manager.provided;
+
+import static disparse.test.Dispatch.require;
+
+import disparse.discord.TestDispatcher;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class StripedExecutionManagerTest {
+
+  @Test
+  public void testFullLaneRejectsCommand() throws InterruptedException {
+    TestDispatcher dispatcher = require(StripedExecutionManagerTest.class).build();
+    StripedExecutionManager<Object, StringBuilder> manager =
+        new StripedExecutionManager<>(StripedExecutionManager.Key.CHANNEL, 1, 1);
+
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    manager.execute(
+        new Object(),
+        dispatcher,
+        () -> {
+          running.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+          }
+        });
+    Assertions.assertTrue(running.await(1, TimeUnit.SECONDS));
+
+    manager.execute(new Object(), dispatcher, () -> {});
+    Assertions.assertThrows(
+        RejectedExecutionException.class,
+        () -> manager.execute(new Object(), dispatcher, () -> {}));
+
+    release.countDown();
+  }
+}
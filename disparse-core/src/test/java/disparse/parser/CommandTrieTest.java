@@ -0,0 +1,38 @@
+package disparse.parser;
+
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CommandTrieTest {
+
+  @Test
+  public void testSubcommandsAreNestedAndSorted() {
+    Command foo = new Command("foo", "");
+    Command fooBar = new Command("foo.bar", "");
+    Command fooBarBaz = new Command("foo.bar.baz", "");
+    Command fooAbc = new Command("foo.Abc", "");
+    Command food = new Command("food", "");
+
+    CommandTrie trie = new CommandTrie();
+    for (Command command : List.of(fooBarBaz, food, fooBar, foo, fooAbc)) {
+      trie.insert(command);
+    }
+
+    Assertions.assertEquals(List.of(fooAbc, fooBar, fooBarBaz), trie.subcommands(foo));
+    Assertions.assertEquals(List.of(fooBarBaz), trie.subcommands(fooBar));
+    Assertions.assertEquals(List.of(), trie.subcommands(food));
+  }
+
+  @Test
+  public void testInsertingRefreshesSubcommands() {
+    Command foo = new Command("foo", "");
+    CommandTrie trie = new CommandTrie();
+    trie.insert(foo);
+    Assertions.assertEquals(List.of(), trie.subcommands(foo));
+
+    Command fooBar = new Command("foo.bar", "");
+    trie.insert(fooBar);
+    Assertions.assertEquals(List.of(fooBar), trie.subcommands(foo));
+  }
+}
@@ -40,7 +40,9 @@ public class ParserTest {
             new Command("sync", ""), List.of(flagFive, flagSix),
             new Command("log", ""), List.of(flagSeven, flagOne),
             new Command("up", ""), List.of(flagTwo, flagThree),
-            new Command("histedit", ""), List.of(flagFour, flagFive));
+            new Command("histedit", ""), List.of(flagFour, flagFive),
+            new Command("sync.all", ""), List.of(flagFive),
+            new Command("sync.all.force", ""), List.of(flagTwo));
     testParser = new Parser(commandToFlags);
   }
 
@@ -123,4 +125,47 @@ public class ParserTest {
     Assertions.assertEquals(output.getArguments().size(), 0);
     Assertions.assertEquals(output.getOptions().get(flagOne), List.of("foo", "bar", "baz"));
   }
+
+  @Test
+  void testSubcommandIsPreferredOverParent() {
+    ParsedOutput output =
+        testParser.parse(new ArrayList<>(List.of("sync", "all", "--user", "disparse", "foo")));
+    Assertions.assertEquals(output.getCommand().getCommandName(), "sync.all");
+    Assertions.assertEquals(output.getOptions().get(flagFive), "disparse");
+    Assertions.assertEquals(output.getArguments(), List.of("foo"));
+  }
+
+  @Test
+  void testDottedSubcommandToken() {
+    ParsedOutput output = testParser.parse(new ArrayList<>(List.of("sync.all", "force", "-u")));
+    Assertions.assertEquals(output.getCommand().getCommandName(), "sync.all.force");
+    Assertions.assertEquals(output.getOptions().get(flagTwo), true);
+  }
+
+  @Test
+  void testPartialSubcommandFallsBackToParent() {
+    ParsedOutput output = testParser.parse(new ArrayList<>(List.of("sync", "al")));
+    Assertions.assertEquals(output.getCommand().getCommandName(), "sync");
+    Assertions.assertEquals(output.getArguments(), List.of("al"));
+  }
+
+  @Test
+  void testTriePrefixesMatchPartialToken() {
+    CommandTrie trie = new CommandTrie();
+    List.of("foo", "foo.bar", "foo.baz", "foo.qux", "food").stream()
+        .map(name -> new Command(name, ""))
+        .forEach(trie::insert);
+
+    CommandTrie.Prefixes prefixes = trie.prefixes(List.of("foo", "ba", "unused"));
+    Assertions.assertEquals(prefixes.getLength(), 2);
+    Assertions.assertEquals(prefixes.getCommands().size(), 2);
+
+    prefixes = trie.prefixes(List.of("fo"));
+    Assertions.assertEquals(prefixes.getLength(), 1);
+    Assertions.assertEquals(prefixes.getCommands().size(), 5);
+
+    prefixes = trie.prefixes(List.of("nothing"));
+    Assertions.assertEquals(prefixes.getLength(), 0);
+    Assertions.assertEquals(prefixes.getCommands().size(), 0);
+  }
 }
@@ -0,0 +1,34 @@
+package disparse.parser.dispatch;
+
+import static disparse.test.Dispatch.require;
+
+import disparse.discord.TestDiscordRequest;
+import disparse.parser.reflection.CommandHandler;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+// kept apart from the handlers of the dispatch tests, which would otherwise all fail to build
+public class HandlerScopeTest {
+
+  @Test
+  public void testScopedHandlerConstructedFromARequestFailsTheBuild() {
+    IllegalStateException exec =
+        Assertions.assertThrows(
+            IllegalStateException.class, () -> require(HandlerScopeTest.class).build());
+    Assertions.assertEquals("Could not register handler for `scoped`", exec.getMessage());
+    Assertions.assertTrue(exec.getCause() instanceof IllegalArgumentException);
+  }
+
+  static class ScopedHandler {
+    private final TestDiscordRequest req;
+
+    ScopedHandler(TestDiscordRequest req) {
+      this.req = req;
+    }
+
+    @CommandHandler(commandName = "scoped", handlerScope = HandlerScope.PER_GUILD)
+    public void scoped(TestDiscordRequest req) {
+      req.getDispatcher().sendMessage(null, String.valueOf(this.req == req));
+    }
+  }
+}
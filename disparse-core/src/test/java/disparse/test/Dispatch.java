@@ -4,14 +4,17 @@ import disparse.discord.TestDispatcher;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Pattern;
 import org.reflections.Reflections;
 import org.reflections.scanners.MethodAnnotationsScanner;
 import org.reflections.util.ClasspathHelper;
 import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
 
 public class Dispatch {
   private final ConfigurationBuilder configurationBuilder = new ConfigurationBuilder();
   private final List<URL> urls = new ArrayList<>();
+  private final FilterBuilder classes = new FilterBuilder();
 
   public static Dispatch require(Class<?> clazz) {
     return new Dispatch().and(clazz);
@@ -19,6 +22,8 @@ public class Dispatch {
 
   public Dispatch and(Class<?> clazz) {
     this.urls.add(ClasspathHelper.forClass(clazz));
+    // only scan the class and its nested classes, not the rest of the test classpath
+    this.classes.include(Pattern.quote(clazz.getName()) + "(\\$.*)?\\.class");
     return this;
   }
 
@@ -32,6 +37,7 @@ public class Dispatch {
             new Reflections(
                 this.configurationBuilder
                     .setUrls(this.urls)
+                    .filterInputsBy(this.classes)
                     .setScanners(new MethodAnnotationsScanner())))
         .build();
   }
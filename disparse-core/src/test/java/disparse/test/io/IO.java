@@ -36,6 +36,11 @@ public class IO implements ExecuteIOStep, SetupIOStep {
     return this;
   }
 
+  public SetupIOStep thenAwait() {
+    this.inputs.add(TestDispatcher::awaitDispatched);
+    return this;
+  }
+
   @Override
   public ExecuteIOStep expect(String... lines) {
     this.lines = lines;
@@ -10,4 +10,7 @@ public interface SetupIOStep {
   SetupIOStep thenWait(long amount);
 
   SetupIOStep thenWait(long amount, ChronoUnit unit);
+
+  /** Waits until every command given so far has been dispatched, including async handlers. */
+  SetupIOStep thenAwait();
 }
@@ -0,0 +1,171 @@
+package disparse.utils.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CoalescingCacheTest {
+
+  @Test
+  public void testConcurrentLookupsShareOneFetch() throws Exception {
+    CoalescingCache<String, String> cache = new CoalescingCache<>(Duration.ofMinutes(1), 10);
+    AtomicInteger fetches = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> first =
+          executor.submit(
+              () ->
+                  cache.get(
+                      "key",
+                      key -> {
+                        fetches.incrementAndGet();
+                        started.countDown();
+                        await(release);
+                        return "value";
+                      }));
+      started.await(1, TimeUnit.SECONDS);
+
+      Future<String> second =
+          executor.submit(
+              () ->
+                  cache.get(
+                      "key",
+                      key -> {
+                        fetches.incrementAndGet();
+                        return "other";
+                      }));
+      release.countDown();
+
+      Assertions.assertEquals("value", first.get(1, TimeUnit.SECONDS));
+      Assertions.assertEquals("value", second.get(1, TimeUnit.SECONDS));
+      Assertions.assertEquals(1, fetches.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testEntriesExpireAfterTtl() {
+    AtomicLong now = new AtomicLong();
+    CoalescingCache<String, String> cache =
+        new CoalescingCache<>(Duration.ofNanos(10), 10, now::get);
+
+    cache.put("key", "old");
+    now.set(5);
+    Assertions.assertEquals("old", cache.get("key", key -> "new"));
+
+    now.set(10);
+    Assertions.assertEquals("new", cache.get("key", key -> "new"));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEntryIsEvicted() {
+    CoalescingCache<String, String> cache = new CoalescingCache<>(Duration.ofMinutes(1), 2);
+
+    cache.put("a", "a");
+    cache.put("b", "b");
+    cache.getIfPresent("a");
+    cache.put("c", "c");
+
+    Assertions.assertEquals(2, cache.size());
+    Assertions.assertEquals("a", cache.getIfPresent("a"));
+    Assertions.assertNull(cache.getIfPresent("b"));
+  }
+
+  @Test
+  public void testFailedFetchIsNotCached() {
+    CoalescingCache<String, String> cache = new CoalescingCache<>(Duration.ofMinutes(1), 2);
+
+    Assertions.assertThrows(
+        IllegalStateException.class,
+        () ->
+            cache.get(
+                "key",
+                key -> {
+                  throw new IllegalStateException();
+                }));
+    Assertions.assertEquals("value", cache.get("key", key -> "value"));
+  }
+
+  @Test
+  public void testInvalidationOnlyDiscardsFetchesOfMatchingKeys() {
+    CoalescingCache<String, String> cache = new CoalescingCache<>(Duration.ofMinutes(1), 10);
+
+    cache.get(
+        "a",
+        key -> {
+          cache.invalidate("b");
+          return "a";
+        });
+    Assertions.assertEquals("a", cache.getIfPresent("a"));
+
+    cache.get(
+        "b",
+        key -> {
+          cache.invalidate("b");
+          return "b";
+        });
+    Assertions.assertNull(cache.getIfPresent("b"));
+  }
+
+  @Test
+  public void testErrorInFetchIsPassedToWaitingLookups() throws Exception {
+    CoalescingCache<String, String> cache = new CoalescingCache<>(Duration.ofMinutes(1), 2);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> first =
+          executor.submit(
+              () ->
+                  cache.get(
+                      "key",
+                      key -> {
+                        started.countDown();
+                        await(release);
+                        throw new AssertionError("fetch failed");
+                      }));
+      started.await(1, TimeUnit.SECONDS);
+
+      Future<String> second =
+          executor.submit(
+              () ->
+                  cache.get(
+                      "key",
+                      key -> {
+                        throw new AssertionError("fetch failed");
+                      }));
+      release.countDown();
+
+      ExecutionException firstFailure =
+          Assertions.assertThrows(ExecutionException.class, () -> first.get(1, TimeUnit.SECONDS));
+      Assertions.assertTrue(firstFailure.getCause() instanceof AssertionError);
+      ExecutionException secondFailure =
+          Assertions.assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+      Assertions.assertTrue(secondFailure.getCause() instanceof AssertionError);
+      Assertions.assertEquals("value", cache.get("key", key -> "value"));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(1, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package disparse.utils.help;
+
+import disparse.parser.Command;
+import disparse.parser.CommandFlag;
+import disparse.parser.Types;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HelpTest {
+
+  private static final List<Command> COMMANDS =
+      List.of(new Command("a", ""), new Command("b", ""), new Command("c", ""));
+
+  private static final List<CommandFlag> FLAGS =
+      List.of(
+          new CommandFlag("x", null, Types.STR, false, "", Map.of()),
+          new CommandFlag("y", null, Types.STR, false, "", Map.of()));
+
+  @Test
+  public void testPageSpanningCommandsAndFlags() throws PageNumberOutOfBounds {
+    PaginatedEntities first = Help.paginate(COMMANDS, FLAGS, 1, 2);
+    Assertions.assertEquals(COMMANDS.subList(0, 2), first.getCommands());
+    Assertions.assertEquals(List.of(), first.getFlags());
+
+    PaginatedEntities second = Help.paginate(COMMANDS, FLAGS, 2, 2);
+    Assertions.assertEquals(COMMANDS.subList(2, 3), second.getCommands());
+    Assertions.assertEquals(FLAGS.subList(0, 1), second.getFlags());
+
+    PaginatedEntities third = Help.paginate(COMMANDS, FLAGS, 3, 2);
+    Assertions.assertEquals(List.of(), third.getCommands());
+    Assertions.assertEquals(FLAGS.subList(1, 2), third.getFlags());
+    Assertions.assertEquals("Currently viewing page 3 of 3", third.getCurrentlyViewing());
+  }
+
+  @Test
+  public void testPageOutOfBounds() {
+    Assertions.assertThrows(
+        PageNumberOutOfBounds.class, () -> Help.paginate(COMMANDS, FLAGS, 4, 2));
+    Assertions.assertThrows(
+        PageNumberOutOfBounds.class, () -> Help.paginate(COMMANDS, FLAGS, 0, 2));
+    Assertions.assertThrows(
+        PageNumberOutOfBounds.class, () -> Help.paginate(List.of(), List.of(), 1, 2));
+  }
+
+  @Test
+  public void testHelpModelMatchesHelp() {
+    List<Command> commands =
+        List.of(
+            new Command("c", ""),
+            new Command("a.c", ""),
+            new Command("B", ""),
+            new Command("a", ""),
+            new Command("a.b.c", ""),
+            new Command("a.b", ""));
+    Map<Command, Set<CommandFlag>> flags =
+        Map.of(commands.get(3), Set.copyOf(FLAGS), commands.get(0), Set.of(FLAGS.get(1)));
+
+    HelpModel model = HelpModel.of(commands, flags);
+    Assertions.assertEquals(Help.sortCommands(commands), model.getCommands());
+    for (Command command : commands) {
+      HelpModel.Entry entry = model.get(command);
+      Assertions.assertEquals(Help.findSubcommands(command, commands), entry.getSubcommands());
+      Assertions.assertEquals(
+          Help.sortFlags(flags.getOrDefault(command, Set.of())), entry.getFlags());
+      Assertions.assertEquals(Help.getTitle(command), entry.getTitle());
+    }
+    Assertions.assertNull(model.get(new Command("d", "")));
+  }
+
+  @Test
+  public void testHelpModelVisibility() {
+    HelpModel model = HelpModel.of(COMMANDS, Map.of());
+
+    BitSet visible = model.visibility(List.of(COMMANDS.get(2), COMMANDS.get(0)));
+    Assertions.assertEquals(visible, model.visibility(List.of(COMMANDS.get(0), COMMANDS.get(2))));
+    Assertions.assertNotEquals(visible, model.visibility(COMMANDS.subList(0, 2)));
+    Assertions.assertNull(model.visibility(List.of(COMMANDS.get(0), new Command("d", ""))));
+  }
+}
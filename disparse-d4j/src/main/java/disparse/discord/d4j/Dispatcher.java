@@ -2,31 +2,48 @@ package disparse.discord.d4j;
 
 import discord4j.common.util.Snowflake;
 import discord4j.core.GatewayDiscordClient;
+import discord4j.core.event.domain.channel.TextChannelDeleteEvent;
+import discord4j.core.event.domain.channel.TextChannelUpdateEvent;
+import discord4j.core.event.domain.guild.GuildDeleteEvent;
+import discord4j.core.event.domain.guild.MemberLeaveEvent;
+import discord4j.core.event.domain.guild.MemberUpdateEvent;
 import discord4j.core.event.domain.message.MessageCreateEvent;
+import discord4j.core.event.domain.message.ReactionAddEvent;
+import discord4j.core.event.domain.message.ReactionRemoveEvent;
+import discord4j.core.event.domain.role.RoleCreateEvent;
+import discord4j.core.event.domain.role.RoleDeleteEvent;
+import discord4j.core.event.domain.role.RoleUpdateEvent;
 import discord4j.core.object.entity.Member;
+import discord4j.core.object.entity.Message;
 import discord4j.core.object.entity.Role;
 import discord4j.core.object.entity.User;
+import discord4j.core.object.entity.channel.MessageChannel;
 import discord4j.core.object.entity.channel.PrivateChannel;
 import discord4j.core.object.entity.channel.TextChannel;
 import discord4j.core.object.reaction.ReactionEmoji;
 import discord4j.core.spec.EmbedCreateSpec;
-import discord4j.rest.util.Permission;
+import discord4j.rest.util.PermissionSet;
 import disparse.discord.AbstractDiscordRequest;
 import disparse.discord.AbstractDispatcher;
-import disparse.discord.PermissionEnumConverter;
+import disparse.discord.EventContext;
+import disparse.discord.MemberAccessCache;
 import disparse.parser.Command;
+import disparse.utils.help.HelpSession;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
 
 public class Dispatcher extends AbstractDispatcher<MessageCreateEvent, EmbedCreateSpec> {
 
   private static final Logger logger = LoggerFactory.getLogger(Dispatcher.class);
+  private static final EventContext.Key<EventFacts> FACTS = new EventContext.Key<>("facts");
 
-  private final PermissionEnumConverter<Permission> enumConverter = new PermissionMapping();
+  private final PermissionMapping permissionMapping = new PermissionMapping();
 
   private Dispatcher() {
     this("", 5, "");
@@ -37,7 +54,49 @@ public class Dispatcher extends AbstractDispatcher<MessageCreateEvent, EmbedCrea
   }
 
   public static void init(GatewayDiscordClient gateway, Dispatcher dispatcher) {
-    gateway.on(MessageCreateEvent.class).subscribe(dispatcher::onMessageReceived);
+    // facts are resolved concurrently, but messages are queued in the order they arrived, so
+    // commands from one channel still run in order
+    gateway
+        .on(MessageCreateEvent.class)
+        .flatMapSequential(dispatcher::resolve)
+        .subscribe(dispatcher::enqueue);
+    gateway.on(ReactionAddEvent.class).flatMap(dispatcher::onReactionAdd).subscribe();
+    gateway.on(ReactionRemoveEvent.class).flatMap(dispatcher::onReactionRemove).subscribe();
+
+    MemberAccessCache cache = dispatcher.memberAccessCache;
+    gateway
+        .on(RoleCreateEvent.class)
+        .subscribe(e -> cache.invalidateGuild(e.getGuildId().asString()));
+    gateway
+        .on(RoleUpdateEvent.class)
+        .subscribe(e -> cache.invalidateGuild(e.getCurrent().getGuildId().asString()));
+    gateway
+        .on(RoleDeleteEvent.class)
+        .subscribe(e -> cache.invalidateGuild(e.getGuildId().asString()));
+    gateway
+        .on(GuildDeleteEvent.class)
+        .subscribe(
+            e -> {
+              if (e.isUnavailable()) {
+                cache.invalidateGuild(e.getGuildId().asString());
+              } else {
+                dispatcher.guildRemoved(e.getGuildId().asString());
+              }
+            });
+    gateway
+        .on(MemberUpdateEvent.class)
+        .subscribe(
+            e -> cache.invalidateMember(e.getGuildId().asString(), e.getMemberId().asString()));
+    gateway
+        .on(MemberLeaveEvent.class)
+        .subscribe(
+            e -> cache.invalidateMember(e.getGuildId().asString(), e.getUser().getId().asString()));
+    gateway
+        .on(TextChannelUpdateEvent.class)
+        .subscribe(e -> cache.invalidateChannel(e.getCurrent().getId().asString()));
+    gateway
+        .on(TextChannelDeleteEvent.class)
+        .subscribe(e -> cache.invalidateChannel(e.getChannel().getId().asString()));
   }
 
   public void onMessageReceived(MessageCreateEvent event) {
@@ -45,11 +104,151 @@ public class Dispatcher extends AbstractDispatcher<MessageCreateEvent, EmbedCrea
     this.dispatch(event);
   }
 
+  /**
+   * Dispatches without blocking. The channel, roles and permissions needed to check the command are
+   * resolved up front, and replies are sent without waiting on each other, so no thread is held
+   * while Discord answers.
+   */
+  public Mono<Void> onMessageReceivedReactive(MessageCreateEvent event) {
+    return this.resolve(event).doOnNext(this::enqueue).then();
+  }
+
+  /**
+   * Resolves the facts of a message that should be dispatched, and completes empty for messages
+   * that should not.
+   */
+  private Mono<Resolved> resolve(MessageCreateEvent event) {
+    if (event.getMessage().getAuthor().isEmpty()) return Mono.empty();
+
+    List<String> args = this.commandArgs(event);
+    if (args == null) return Mono.empty();
+
+    return EventFacts.resolve(event, this.registrar.checksAccess(args), this.memberAccessCache)
+        .map(
+            facts -> {
+              this.contextOf(event).put(FACTS, facts);
+              return new Resolved(event, args);
+            })
+        .onErrorResume(
+            exec -> {
+              logger.error("Could not resolve the context of a command", exec);
+              this.dispatchComplete(event);
+              return Mono.empty();
+            });
+  }
+
+  private void enqueue(Resolved resolved) {
+    this.enqueue(resolved.event, resolved.args);
+  }
+
+  private EventFacts factsOf(MessageCreateEvent event) {
+    return this.contextOf(event).getIfPresent(FACTS);
+  }
+
+  /** Turns the page of a help listing when its requester reacts to it. */
+  public Mono<Void> onReactionAdd(ReactionAddEvent event) {
+    return this.onReaction(
+        event.getEmoji(), event.getMessageId(), event.getUserId(), event.getMessage());
+  }
+
+  /**
+   * Turns the page of a help listing when its requester removes a reaction from it, so that they
+   * can turn it again without removing their reaction first.
+   */
+  public Mono<Void> onReactionRemove(ReactionRemoveEvent event) {
+    return this.onReaction(
+        event.getEmoji(), event.getMessageId(), event.getUserId(), event.getMessage());
+  }
+
+  private Mono<Void> onReaction(
+      ReactionEmoji reaction, Snowflake messageId, Snowflake userId, Mono<Message> reacted) {
+    Optional<String> emoji = reaction.asUnicodeEmoji().map(ReactionEmoji.Unicode::getRaw);
+    if (emoji.isEmpty()) return Mono.empty();
+
+    EmbedCreateSpec page = this.turnHelpPage(messageId.asString(), userId.toString(), emoji.get());
+    if (page == null) return Mono.empty();
+
+    return reacted
+        .flatMap(message -> message.edit(spec -> spec.setEmbed(embed -> embed(embed, page))))
+        .onErrorResume(
+            exec -> {
+              logger.error("Could not turn the page of a help listing", exec);
+              return Mono.empty();
+            })
+        .then();
+  }
+
+  @Override
+  protected PermissionMapping permissionConverter() {
+    return this.permissionMapping;
+  }
+
   @Override
   public void sendMessage(MessageCreateEvent event, String message) {
+    EventFacts facts = this.factsOf(event);
+    if (facts != null) {
+      facts.send(facts.getChannel().createMessage(message));
+      return;
+    }
+
     event.getMessage().getChannel().block().createMessage(message).block();
   }
 
+  @Override
+  public CompletionStage<?> toCompletionStage(Object result) {
+    if (result instanceof Mono) {
+      return ((Mono<?>) result).toFuture();
+    }
+    return super.toCompletionStage(result);
+  }
+
+  @Override
+  public CompletionStage<Void> sendMessageAsync(MessageCreateEvent event, String message) {
+    EventFacts facts = this.factsOf(event);
+    if (facts != null) {
+      return facts.send(facts.getChannel().createMessage(message));
+    }
+
+    return event
+        .getMessage()
+        .getChannel()
+        .flatMap(channel -> channel.createMessage(message))
+        .then()
+        .toFuture();
+  }
+
+  @Override
+  public CompletionStage<Void> sendEmbedAsync(MessageCreateEvent event, EmbedCreateSpec builder) {
+    EventFacts facts = this.factsOf(event);
+    if (facts != null) {
+      return facts.send(
+          facts
+              .getChannel()
+              .createMessage(messageSpec -> messageSpec.setEmbed(embed -> embed(embed, builder))));
+    }
+
+    return event
+        .getMessage()
+        .getChannel()
+        .flatMap(
+            channel ->
+                channel.createMessage(
+                    messageSpec -> messageSpec.setEmbed(embed -> embed(embed, builder))))
+        .then()
+        .toFuture();
+  }
+
+  @Override
+  public CompletionStage<Void> sendReactAsync(MessageCreateEvent event, String value) {
+    EventFacts facts = this.factsOf(event);
+    Mono<Void> react = event.getMessage().addReaction(ReactionEmoji.unicode(value));
+    if (facts != null) {
+      return facts.send(react);
+    }
+
+    return react.toFuture();
+  }
+
   @Override
   public void setBuilderTitle(EmbedCreateSpec builder, String title) {
     builder.setTitle(title);
@@ -65,6 +264,11 @@ public class Dispatcher extends AbstractDispatcher<MessageCreateEvent, EmbedCrea
     if (command.getRoles().length == 0) {
       return false;
     }
+    EventFacts facts = this.factsOf(event);
+    if (facts != null && facts.hasAccess()) {
+      return !facts.isMember() || !facts.getAccess().hasAnyRole(command.getRoles());
+    }
+
     Member member = event.getMember().orElse(null);
     if (member != null) {
       for (String commandRole : command.getRoles()) {
@@ -84,28 +288,36 @@ public class Dispatcher extends AbstractDispatcher<MessageCreateEvent, EmbedCrea
 
   @Override
   public boolean commandIntentsNotMet(MessageCreateEvent event, Command command) {
-    if (command.getPerms().length == 0) {
+    long mask = this.permissionMask(command);
+    if (mask == 0) {
       return false;
     }
-    return Arrays.stream(command.getPerms())
-        .map(enumConverter::into)
-        .noneMatch(
-            p -> {
-              Optional<Member> optionalMember = event.getMember();
 
-              if (optionalMember.isEmpty()) return false;
+    EventFacts facts = this.factsOf(event);
+    if (facts != null && facts.hasAccess()) {
+      return !facts.isMember() || (facts.getAccess().getPermissions() & mask) == 0;
+    }
 
-              return optionalMember.get().getBasePermissions().block().contains(p);
-            });
+    Optional<Member> optionalMember = event.getMember();
+    if (optionalMember.isEmpty()) return true;
+
+    PermissionSet permissions = optionalMember.get().getBasePermissions().block();
+    return (permissions.getRawValue() & mask) == 0;
   }
 
   @Override
   public boolean isSentFromChannel(MessageCreateEvent event) {
+    EventFacts facts = this.factsOf(event);
+    if (facts != null) return facts.getChannel() instanceof TextChannel;
+
     return event.getMessage().getChannel().block() instanceof TextChannel;
   }
 
   @Override
   public boolean isSentFromDM(MessageCreateEvent event) {
+    EventFacts facts = this.factsOf(event);
+    if (facts != null) return facts.getChannel() instanceof PrivateChannel;
+
     return event.getMessage().getChannel().block() instanceof PrivateChannel;
   }
 
@@ -122,6 +334,12 @@ public class Dispatcher extends AbstractDispatcher<MessageCreateEvent, EmbedCrea
 
   @Override
   public void sendReact(MessageCreateEvent event, String value) {
+    EventFacts facts = this.factsOf(event);
+    if (facts != null) {
+      facts.send(event.getMessage().addReaction(ReactionEmoji.unicode(value)));
+      return;
+    }
+
     event.getMessage().addReaction(ReactionEmoji.unicode(value)).block();
   }
 
@@ -130,6 +348,13 @@ public class Dispatcher extends AbstractDispatcher<MessageCreateEvent, EmbedCrea
     return new EmbedCreateSpec();
   }
 
+  @Override
+  public EmbedCreateSpec copyBuilder(EmbedCreateSpec builder) {
+    EmbedCreateSpec copy = new EmbedCreateSpec();
+    embed(copy, builder);
+    return copy;
+  }
+
   @Override
   public void addField(EmbedCreateSpec builder, String name, String value, boolean inline) {
     builder.addField(name, value, inline);
@@ -137,33 +362,63 @@ public class Dispatcher extends AbstractDispatcher<MessageCreateEvent, EmbedCrea
 
   @Override
   public void sendEmbed(MessageCreateEvent event, EmbedCreateSpec builder) {
+    EventFacts facts = this.factsOf(event);
+    if (facts != null) {
+      facts.send(
+          facts
+              .getChannel()
+              .createMessage(messageSpec -> messageSpec.setEmbed(embed -> embed(embed, builder))));
+      return;
+    }
+
     event
         .getMessage()
         .getChannel()
         .block()
-        .createMessage(
-            messageSpec -> {
-              messageSpec.setEmbed(
-                  embedSpec -> {
-                    embedSpec.setTitle(builder.asRequest().title().toOptional().orElse(""));
-                    embedSpec.setDescription(
-                        builder.asRequest().description().toOptional().orElse(""));
-
-                    builder
-                        .asRequest()
-                        .fields()
-                        .toOptional()
-                        .orElse(new ArrayList<>())
-                        .forEach(
-                            f -> {
-                              embedSpec.addField(
-                                  f.name(), f.value(), f.inline().toOptional().orElse(false));
-                            });
-                  });
-            })
+        .createMessage(messageSpec -> messageSpec.setEmbed(embed -> embed(embed, builder)))
         .block();
   }
 
+  @Override
+  protected CompletionStage<String> sendPagedEmbed(
+      MessageCreateEvent event, EmbedCreateSpec builder) {
+    EventFacts facts = this.factsOf(event);
+    Mono<MessageChannel> channel =
+        facts != null ? Mono.just(facts.getChannel()) : event.getMessage().getChannel();
+
+    CompletableFuture<String> messageId = new CompletableFuture<>();
+    Mono<Message> send =
+        channel
+            .flatMap(
+                c -> c.createMessage(messageSpec -> messageSpec.setEmbed(e -> embed(e, builder))))
+            .flatMap(
+                message ->
+                    message
+                        .addReaction(ReactionEmoji.unicode(HelpSession.PREVIOUS_PAGE))
+                        .then(message.addReaction(ReactionEmoji.unicode(HelpSession.NEXT_PAGE)))
+                        .thenReturn(message))
+            .doOnNext(message -> messageId.complete(message.getId().asString()));
+
+    CompletionStage<Void> sent = facts != null ? facts.send(send) : send.then().toFuture();
+    sent.whenComplete((ignored, exec) -> messageId.complete(null));
+    return messageId;
+  }
+
+  private static void embed(EmbedCreateSpec embedSpec, EmbedCreateSpec builder) {
+    embedSpec.setTitle(builder.asRequest().title().toOptional().orElse(""));
+    embedSpec.setDescription(builder.asRequest().description().toOptional().orElse(""));
+
+    builder
+        .asRequest()
+        .fields()
+        .toOptional()
+        .orElse(new ArrayList<>())
+        .forEach(
+            f -> {
+              embedSpec.addField(f.name(), f.value(), f.inline().toOptional().orElse(false));
+            });
+  }
+
   @Override
   public String identityFromEvent(MessageCreateEvent event) {
     Optional<User> optionalUser = event.getMessage().getAuthor();
@@ -187,6 +442,16 @@ public class Dispatcher extends AbstractDispatcher<MessageCreateEvent, EmbedCrea
     return event.getMessage().getContent();
   }
 
+  private static class Resolved {
+    private final MessageCreateEvent event;
+    private final List<String> args;
+
+    Resolved(MessageCreateEvent event, List<String> args) {
+      this.event = event;
+      this.args = args;
+    }
+  }
+
   public static class Builder
       extends BaseBuilder<MessageCreateEvent, EmbedCreateSpec, Dispatcher, Builder> {
     public Builder(Class<?> clazz) {
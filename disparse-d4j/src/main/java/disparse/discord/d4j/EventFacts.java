@@ -0,0 +1,120 @@
+package disparse.discord.d4j;
+
+import discord4j.core.event.domain.message.MessageCreateEvent;
+import discord4j.core.object.entity.Member;
+import discord4j.core.object.entity.Role;
+import discord4j.core.object.entity.channel.MessageChannel;
+import discord4j.rest.util.PermissionSet;
+import disparse.discord.MemberAccessCache;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+/**
+ * What the dispatcher needs to know about a message that it would otherwise have to block for: the
+ * channel it was sent in and, if the command checks them, the author's roles and permissions. These
+ * are resolved reactively before the message is dispatched, and the messages sent in reply are
+ * chained onto each other instead of being blocked on, which keeps them in order.
+ */
+class EventFacts {
+
+  private static final Logger logger = LoggerFactory.getLogger(EventFacts.class);
+
+  private final MessageChannel channel;
+  private final boolean accessResolved;
+  private final MemberAccessCache.Access access;
+  private Mono<Void> sends = Mono.empty();
+
+  private EventFacts(
+      MessageChannel channel, boolean accessResolved, MemberAccessCache.Access access) {
+    this.channel = channel;
+    this.accessResolved = accessResolved;
+    this.access = access;
+  }
+
+  /**
+   * Resolves the facts of {@code event}. The author's roles and permissions are only looked up if
+   * {@code checksAccess} is set, and are resolved through {@code cache}.
+   */
+  static Mono<EventFacts> resolve(
+      MessageCreateEvent event, boolean checksAccess, MemberAccessCache cache) {
+    Mono<MessageChannel> channel = event.getMessage().getChannel();
+    if (!checksAccess) {
+      return channel.map(c -> new EventFacts(c, false, null));
+    }
+
+    Member member = event.getMember().orElse(null);
+    if (member == null) {
+      return channel.map(c -> new EventFacts(c, true, null));
+    }
+
+    String guildId = member.getGuildId().asString();
+    String memberId = member.getId().asString();
+    String channelId = event.getMessage().getChannelId().asString();
+
+    Mono<MemberAccessCache.Access> access =
+        Mono.defer(
+            () ->
+                Mono.fromCompletionStage(
+                    cache.getAsync(
+                        guildId,
+                        memberId,
+                        channelId,
+                        () -> resolveAccess(event, member).toFuture())));
+
+    return Mono.zip(channel, access).map(t -> new EventFacts(t.getT1(), true, t.getT2()));
+  }
+
+  private static Mono<MemberAccessCache.Access> resolveAccess(
+      MessageCreateEvent event, Member member) {
+    Mono<List<String>> roleNames = member.getRoles().map(Role::getName).collectList();
+    Mono<Boolean> owner =
+        event
+            .getGuild()
+            .map(guild -> guild.getOwnerId().equals(member.getId()))
+            .defaultIfEmpty(false);
+    Mono<PermissionSet> permissions =
+        member.getBasePermissions().defaultIfEmpty(PermissionSet.none());
+
+    return Mono.zip(roleNames, owner, permissions)
+        .map(t -> new MemberAccessCache.Access(t.getT1(), t.getT2(), t.getT3().getRawValue()));
+  }
+
+  MessageChannel getChannel() {
+    return channel;
+  }
+
+  /** Whether the author's roles and permissions were resolved, see {@link #resolve}. */
+  boolean hasAccess() {
+    return accessResolved;
+  }
+
+  boolean isMember() {
+    return access != null;
+  }
+
+  /** The author's roles and permissions, or {@code null} if the message was not sent in a guild. */
+  MemberAccessCache.Access getAccess() {
+    return access;
+  }
+
+  /**
+   * Sends {@code send} once everything sent before it for the same event has been sent. The
+   * returned future completes when it has been sent.
+   */
+  synchronized CompletableFuture<Void> send(Mono<?> send) {
+    this.sends =
+        this.sends
+            .then(
+                send.then()
+                    .onErrorResume(
+                        exec -> {
+                          logger.error("Could not send a response", exec);
+                          return Mono.empty();
+                        }))
+            .cache();
+    return this.sends.toFuture();
+  }
+}
@@ -5,6 +5,7 @@ module disparse.d4j {
   requires discord4j.discordjson.api;
   requires discord4j.rest;
   requires disparse.core;
+  requires org.reactivestreams;
   requires reactor.core;
   requires org.slf4j;
 
@@ -2,10 +2,12 @@ package disparse.discord.jda;
 
 import disparse.discord.AbstractDiscordRequest;
 import disparse.discord.AbstractDispatcher;
-import disparse.discord.PermissionEnumConverter;
+import disparse.discord.MemberAccessCache;
 import disparse.parser.Command;
-import java.util.Arrays;
+import disparse.utils.help.HelpSession;
 import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDABuilder;
@@ -13,7 +15,14 @@ import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.ChannelType;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.events.channel.text.GenericTextChannelEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.member.GenericGuildMemberEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.events.message.react.GenericMessageReactionEvent;
+import net.dv8tion.jda.api.events.message.react.MessageReactionAddEvent;
+import net.dv8tion.jda.api.events.message.react.MessageReactionRemoveEvent;
+import net.dv8tion.jda.api.events.role.GenericRoleEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,7 +31,7 @@ public class Dispatcher extends AbstractDispatcher<MessageReceivedEvent, EmbedBu
 
   private static final Logger logger = LoggerFactory.getLogger(Dispatcher.class);
 
-  private final PermissionEnumConverter<Permission> enumConverter = new PermissionMapping();
+  private final PermissionMapping permissionMapping = new PermissionMapping();
 
   private Dispatcher() {
     this("", 5, "");
@@ -39,10 +48,60 @@ public class Dispatcher extends AbstractDispatcher<MessageReceivedEvent, EmbedBu
           public void onMessageReceived(@Nonnull MessageReceivedEvent event) {
             dispatcher.dispatch(event);
           }
+
+          @Override
+          public void onMessageReactionAdd(@Nonnull MessageReactionAddEvent event) {
+            dispatcher.onReaction(event);
+          }
+
+          // removing a reaction turns the page too, so it can be turned again without re-adding it
+          @Override
+          public void onMessageReactionRemove(@Nonnull MessageReactionRemoveEvent event) {
+            dispatcher.onReaction(event);
+          }
+
+          @Override
+          public void onGenericRole(@Nonnull GenericRoleEvent event) {
+            dispatcher.getMemberAccessCache().invalidateGuild(event.getGuild().getId());
+          }
+
+          @Override
+          public void onGenericGuildMember(@Nonnull GenericGuildMemberEvent event) {
+            dispatcher
+                .getMemberAccessCache()
+                .invalidateMember(event.getGuild().getId(), event.getMember().getId());
+          }
+
+          @Override
+          public void onGenericTextChannel(@Nonnull GenericTextChannelEvent event) {
+            dispatcher.getMemberAccessCache().invalidateChannel(event.getChannel().getId());
+          }
+
+          @Override
+          public void onGuildLeave(@Nonnull GuildLeaveEvent event) {
+            dispatcher.guildRemoved(event.getGuild().getId());
+          }
         });
     return builder;
   }
 
+  /** Turns the page of a help listing when its requester adds or removes a reaction on it. */
+  private void onReaction(GenericMessageReactionEvent event) {
+    if (!event.getReactionEmote().isEmoji()) return;
+
+    EmbedBuilder page =
+        this.turnHelpPage(
+            event.getMessageId(), event.getUserId(), event.getReactionEmote().getEmoji());
+    if (page != null) {
+      event.getChannel().editMessageById(event.getMessageId(), page.build()).queue();
+    }
+  }
+
+  @Override
+  protected PermissionMapping permissionConverter() {
+    return this.permissionMapping;
+  }
+
   @Override
   public void sendMessage(MessageReceivedEvent event, String message) {
     event.getChannel().sendMessage(message).queue();
@@ -53,11 +112,47 @@ public class Dispatcher extends AbstractDispatcher<MessageReceivedEvent, EmbedBu
     event.getChannel().sendMessage(builder.build()).queue();
   }
 
+  @Override
+  public CompletionStage<Void> sendMessageAsync(MessageReceivedEvent event, String message) {
+    return event.getChannel().sendMessage(message).submit().thenAccept(sent -> {});
+  }
+
+  @Override
+  public CompletionStage<Void> sendEmbedAsync(MessageReceivedEvent event, EmbedBuilder builder) {
+    return event.getChannel().sendMessage(builder.build()).submit().thenAccept(sent -> {});
+  }
+
+  @Override
+  protected CompletionStage<String> sendPagedEmbed(
+      MessageReceivedEvent event, EmbedBuilder builder) {
+    return event
+        .getChannel()
+        .sendMessage(builder.build())
+        .submit()
+        .thenCompose(
+            message ->
+                message
+                    .addReaction(HelpSession.PREVIOUS_PAGE)
+                    .submit()
+                    .thenCompose(v -> message.addReaction(HelpSession.NEXT_PAGE).submit())
+                    .thenApply(v -> message.getId()));
+  }
+
+  @Override
+  public CompletionStage<Void> sendReactAsync(MessageReceivedEvent event, String value) {
+    return event.getMessage().addReaction(value).submit();
+  }
+
   @Override
   public EmbedBuilder createBuilder() {
     return new EmbedBuilder();
   }
 
+  @Override
+  public EmbedBuilder copyBuilder(EmbedBuilder builder) {
+    return new EmbedBuilder(builder);
+  }
+
   @Override
   public void setBuilderTitle(EmbedBuilder builder, String title) {
     builder.setTitle(title);
@@ -129,32 +224,35 @@ public class Dispatcher extends AbstractDispatcher<MessageReceivedEvent, EmbedBu
     if (command.getRoles().length == 0) {
       return false;
     }
-    Member member = event.getMember();
-    if (member != null) {
-      for (String commandRole : command.getRoles()) {
-        if (commandRole.equalsIgnoreCase("owner") && event.getMember().isOwner()) {
-          return false;
-        }
-        for (Role role : member.getRoles()) {
-          if (role.getName().equalsIgnoreCase(commandRole)) {
-            return false;
-          }
-        }
-      }
-    }
-    return true;
+    MemberAccessCache.Access access = this.memberAccess(event);
+    return access == null || !access.hasAnyRole(command.getRoles());
   }
 
   @Override
   public boolean commandIntentsNotMet(MessageReceivedEvent event, Command command) {
-
-    if (command.getPerms().length == 0) {
+    long mask = this.permissionMask(command);
+    if (mask == 0) {
       return false;
     }
 
-    return Arrays.stream(command.getPerms())
-        .map(enumConverter::into)
-        .noneMatch(p -> event.getMember().hasPermission(p));
+    MemberAccessCache.Access access = this.memberAccess(event);
+    if (access == null) return true;
+
+    long permissions = access.getPermissions();
+    return (permissions & Permission.ADMINISTRATOR.getRawValue()) == 0 && (permissions & mask) == 0;
+  }
+
+  private MemberAccessCache.Access memberAccess(MessageReceivedEvent event) {
+    Member member = event.getMember();
+    if (member == null) return null;
+
+    return this.memberAccess(
+        event,
+        () ->
+            new MemberAccessCache.Access(
+                member.getRoles().stream().map(Role::getName).collect(Collectors.toList()),
+                member.isOwner(),
+                Permission.getRaw(member.getPermissions())));
   }
 
   public static class Builder
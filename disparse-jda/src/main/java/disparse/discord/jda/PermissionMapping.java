@@ -145,4 +145,9 @@ public class PermissionMapping implements PermissionEnumConverter<Permission> {
         return AbstractPermission.UNKNOWN;
     }
   }
+
+  @Override
+  public long bit(Permission permission) {
+    return permission == Permission.UNKNOWN ? 0 : permission.getRawValue();
+  }
 }
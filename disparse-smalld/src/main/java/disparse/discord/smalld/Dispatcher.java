@@ -1,23 +1,28 @@
 package disparse.discord.smalld;
 
+import static disparse.discord.smalld.GatewayPayload.objectOrNull;
+import static disparse.discord.smalld.GatewayPayload.stringOrNull;
 import static disparse.discord.smalld.Utils.*;
 
 import com.github.princesslana.smalld.SmallD;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import disparse.discord.AbstractDiscordRequest;
 import disparse.discord.AbstractDispatcher;
-import disparse.discord.PermissionEnumConverter;
+import disparse.discord.EventContext;
+import disparse.discord.MemberAccessCache;
 import disparse.discord.smalld.guilds.Guilds;
-import disparse.discord.smalld.permissions.Permission;
+import disparse.discord.smalld.guilds.Role;
 import disparse.discord.smalld.permissions.PermissionBase;
 import disparse.discord.smalld.permissions.PermissionUtils;
 import disparse.parser.Command;
 import disparse.utils.help.Help;
-import java.util.Arrays;
+import disparse.utils.help.HelpSession;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,10 +30,12 @@ public class Dispatcher extends AbstractDispatcher<Event, JsonElement> {
 
   private static final Logger logger = LoggerFactory.getLogger(Dispatcher.class);
 
-  private PermissionEnumConverter<Permission> enumConverter = new PermissionMapping();
+  private final PermissionMapping permissionMapping = new PermissionMapping();
 
   private SmallD smalld;
 
+  private final GatewayCache cache = new GatewayCache();
+
   private Dispatcher() {
     this("", null, 5, "");
   }
@@ -43,11 +50,94 @@ public class Dispatcher extends AbstractDispatcher<Event, JsonElement> {
   }
 
   public void onMessageReceived(String message) {
-    JsonObject json = JsonParser.parseString(message).getAsJsonObject();
-    Event event = new Event(this.smalld, json);
+    GatewayPayload payload = GatewayPayload.decode(message, this::keepPayload);
+    this.cache.onGatewayPayload(payload);
+
+    if (isReaction(payload.getType())) {
+      this.onReaction(payload);
+      return;
+    }
+
+    if (!payload.isMessageCreate()) {
+      this.invalidateMemberAccess(payload);
+      return;
+    }
+    this.dispatch(new Event(this.smalld, payload, this.cache));
+  }
+
+  private boolean keepPayload(String type) {
+    return GatewayCache.tracks(type) || (this.helpSessions != null && isReaction(type));
+  }
+
+  private static boolean isReaction(String type) {
+    return GatewayPayload.MESSAGE_REACTION_ADD.equals(type)
+        || GatewayPayload.MESSAGE_REACTION_REMOVE.equals(type);
+  }
+
+  /** Turns the page of a help listing when its requester adds or removes a reaction on it. */
+  private void onReaction(GatewayPayload payload) {
+    if (this.helpSessions == null) return;
+
+    JsonElement d = payload.getJson().get("d");
+    if (d == null || !d.isJsonObject()) return;
+
+    JsonObject data = d.getAsJsonObject();
+    JsonObject emoji = objectOrNull(data.get("emoji"));
+    String name = emoji != null ? stringOrNull(emoji.get("name")) : null;
+    String channelId = stringOrNull(data.get("channel_id"));
+    String messageId = stringOrNull(data.get("message_id"));
+    String userId = stringOrNull(data.get("user_id"));
+    if (name == null || channelId == null || messageId == null || userId == null) return;
+
+    JsonElement page = this.turnHelpPage(messageId, userId, name);
+    if (page != null) {
+      Utils.editEmbed(this.smalld, channelId, messageId, page.getAsJsonObject());
+    }
+  }
+
+  private void invalidateMemberAccess(GatewayPayload payload) {
+    if (payload.getType() == null || !GatewayCache.tracks(payload.getType())) return;
+
+    JsonObject data = payload.getJson().getAsJsonObject("d");
+    switch (payload.getType()) {
+      case "GUILD_UPDATE":
+        this.memberAccessCache.invalidateGuild(data.get("id").getAsString());
+        break;
+      case "GUILD_DELETE":
+        // an unavailable guild is an outage, and the bot is still a member of it
+        JsonElement unavailable = data.get("unavailable");
+        if (unavailable != null && !unavailable.isJsonNull() && unavailable.getAsBoolean()) {
+          this.memberAccessCache.invalidateGuild(data.get("id").getAsString());
+        } else {
+          this.guildRemoved(data.get("id").getAsString());
+        }
+        break;
+      case "GUILD_ROLE_CREATE":
+      case "GUILD_ROLE_UPDATE":
+      case "GUILD_ROLE_DELETE":
+        this.memberAccessCache.invalidateGuild(data.get("guild_id").getAsString());
+        break;
+      case "GUILD_MEMBER_UPDATE":
+      case "GUILD_MEMBER_REMOVE":
+        this.memberAccessCache.invalidateMember(
+            data.get("guild_id").getAsString(),
+            data.getAsJsonObject("user").get("id").getAsString());
+        break;
+      case "CHANNEL_UPDATE":
+      case "CHANNEL_DELETE":
+        this.memberAccessCache.invalidateChannel(data.get("id").getAsString());
+        break;
+    }
+  }
 
-    if (!isMessageCreate(json)) return;
-    this.dispatch(event);
+  @Override
+  protected PermissionMapping permissionConverter() {
+    return this.permissionMapping;
+  }
+
+  @Override
+  public EventContext contextOf(Event event) {
+    return event.getContext();
   }
 
   @Override
@@ -60,6 +150,13 @@ public class Dispatcher extends AbstractDispatcher<Event, JsonElement> {
     Utils.sendEmbed(event, element.getAsJsonObject());
   }
 
+  @Override
+  protected CompletionStage<String> sendPagedEmbed(Event event, JsonElement element) {
+    return CompletableFuture.completedFuture(
+        Utils.sendEmbedWithReactions(
+            event, element.getAsJsonObject(), HelpSession.PREVIOUS_PAGE, HelpSession.NEXT_PAGE));
+  }
+
   @Override
   public String identityFromEvent(Event event) {
     return Utils.getAuthorId(event);
@@ -67,7 +164,7 @@ public class Dispatcher extends AbstractDispatcher<Event, JsonElement> {
 
   @Override
   public String channelFromEvent(Event event) {
-    return Utils.getChannelId(event.getJson());
+    return Utils.getChannelId(event);
   }
 
   @Override
@@ -82,7 +179,7 @@ public class Dispatcher extends AbstractDispatcher<Event, JsonElement> {
 
   @Override
   public String rawMessageContentFromEvent(Event event) {
-    return Utils.getMessageContent(event.getJson());
+    return Utils.getMessageContent(event);
   }
 
   @Override
@@ -93,6 +190,11 @@ public class Dispatcher extends AbstractDispatcher<Event, JsonElement> {
     return builder;
   }
 
+  @Override
+  public JsonElement copyBuilder(JsonElement builder) {
+    return builder.deepCopy();
+  }
+
   @Override
   public void setBuilderTitle(JsonElement builder, String title) {
     builder.getAsJsonObject().addProperty("title", title);
@@ -114,34 +216,34 @@ public class Dispatcher extends AbstractDispatcher<Event, JsonElement> {
       return false;
     }
 
-    String[] commandRoles = command.getRoles();
-
-    return Guilds.getRolesForGuildMember(event, getAuthorId(event)).stream()
-        .noneMatch(
-            role -> {
-              for (String commandRole : commandRoles) {
-                if (role.getName().equalsIgnoreCase(commandRole)) {
-                  return true;
-                }
-              }
-
-              return false;
-            });
+    MemberAccessCache.Access access = this.memberAccess(event);
+    return access == null || !access.hasAnyRole(command.getRoles());
   }
 
   @Override
   public boolean commandIntentsNotMet(Event event, Command command) {
-    if (command.getPerms().length == 0) {
+    long mask = this.permissionMask(command);
+    if (mask == 0) {
       return false;
     }
 
-    return Arrays.stream(command.getPerms())
-        .map(enumConverter::into)
-        .noneMatch(
-            p -> {
-              PermissionBase perm = PermissionUtils.computeAllPerms(event);
-              return perm.contains(p);
-            });
+    MemberAccessCache.Access access = this.memberAccess(event);
+    if (access == null) return true;
+
+    PermissionBase perm = new PermissionBase(access.getPermissions());
+    return !perm.containsAny(mask);
+  }
+
+  private MemberAccessCache.Access memberAccess(Event event) {
+    return this.memberAccess(
+        event,
+        () ->
+            new MemberAccessCache.Access(
+                Guilds.getRolesForAuthor(event).stream()
+                    .map(Role::getName)
+                    .collect(Collectors.toList()),
+                false,
+                PermissionUtils.computeAllPerms(event).getValue()));
   }
 
   @Override
@@ -166,7 +268,7 @@ public class Dispatcher extends AbstractDispatcher<Event, JsonElement> {
 
   @Override
   public boolean isAuthorABot(Event event) {
-    return isAuthorBot(event.getJson());
+    return isAuthorBot(event);
   }
 
   @Override
@@ -2,14 +2,26 @@ package disparse.discord.smalld;
 
 import com.github.princesslana.smalld.SmallD;
 import com.google.gson.JsonObject;
+import disparse.discord.EventContext;
 
 public class Event {
   private SmallD smalld;
-  private JsonObject json;
+  private GatewayPayload payload;
+  private GatewayCache cache;
+  private final EventContext context = new EventContext();
 
   public Event(SmallD smalld, JsonObject json) {
+    this(smalld, json, null);
+  }
+
+  public Event(SmallD smalld, JsonObject json, GatewayCache cache) {
+    this(smalld, GatewayPayload.of(json), cache);
+  }
+
+  public Event(SmallD smalld, GatewayPayload payload, GatewayCache cache) {
     this.smalld = smalld;
-    this.json = json;
+    this.payload = payload;
+    this.cache = cache;
   }
 
   public SmallD getSmalld() {
@@ -17,6 +29,20 @@ public class Event {
   }
 
   public JsonObject getJson() {
-    return json;
+    return payload.getJson();
+  }
+
+  public GatewayPayload getPayload() {
+    return payload;
+  }
+
+  /** Facts about this event that have already been worked out, such as the author's permissions. */
+  public EventContext getContext() {
+    return context;
+  }
+
+  /** The cache of gateway entities to look things up in, or {@code null} to always use REST. */
+  public GatewayCache getCache() {
+    return cache;
   }
 }
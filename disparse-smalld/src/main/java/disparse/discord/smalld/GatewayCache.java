@@ -0,0 +1,280 @@
+package disparse.discord.smalld;
+
+import static disparse.discord.smalld.GatewayPayload.objectOrNull;
+import static disparse.discord.smalld.GatewayPayload.stringOrNull;
+
+import com.github.princesslana.smalld.SmallD;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import disparse.discord.smalld.guilds.Role;
+import disparse.utils.cache.CoalescingCache;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Channels, guild roles and the roles of guild members, kept up to date from the gateway payloads
+ * the dispatcher already receives. Lookups that miss fall back to the given REST call and remember
+ * its result, so in steady state checking a command does not need to call Discord at all. REST
+ * calls made through {@link #get} are coalesced and briefly cached.
+ */
+public class GatewayCache {
+
+  private static final Gson gson = new Gson();
+
+  private final Map<String, JsonObject> channels = new ConcurrentHashMap<>();
+  private final Map<String, Map<String, Role>> guildRoles = new ConcurrentHashMap<>();
+  private final Map<String, Set<String>> memberRoles = new ConcurrentHashMap<>();
+  private final CoalescingCache<String, String> rest =
+      new CoalescingCache<>(Duration.ofSeconds(5), 1000);
+
+  /** Whether payloads of type {@code t} change anything held here. */
+  public static boolean tracks(String t) {
+    switch (t) {
+      case "GUILD_CREATE":
+      case "GUILD_UPDATE":
+      case "GUILD_DELETE":
+      case "GUILD_ROLE_CREATE":
+      case "GUILD_ROLE_UPDATE":
+      case "GUILD_ROLE_DELETE":
+      case "CHANNEL_CREATE":
+      case "CHANNEL_UPDATE":
+      case "CHANNEL_DELETE":
+      case "GUILD_MEMBER_ADD":
+      case "GUILD_MEMBER_UPDATE":
+      case "GUILD_MEMBER_REMOVE":
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  public void onGatewayPayload(GatewayPayload payload) {
+    if (payload.isMessageCreate()) {
+      this.onMessageCreate(payload.getGuildId(), payload.getAuthor(), payload.getMember());
+    } else if (payload.getType() != null && tracks(payload.getType())) {
+      this.onGatewayPayload(payload.getJson());
+    }
+  }
+
+  public void onGatewayPayload(JsonObject json) {
+    JsonElement op = json.get("op");
+    JsonElement t = json.get("t");
+    JsonElement d = json.get("d");
+    if (op == null
+        || !op.isJsonPrimitive()
+        || op.getAsInt() != 0
+        || t == null
+        || !t.isJsonPrimitive()
+        || d == null
+        || !d.isJsonObject()) {
+      return;
+    }
+
+    // fields that are missing or of the wrong type read as null, so a malformed event is ignored
+    // rather than stopping the dispatcher from receiving
+    JsonObject data = d.getAsJsonObject();
+    String id = stringOrNull(data.get("id"));
+    String guildId = stringOrNull(data.get("guild_id"));
+    switch (t.getAsString()) {
+      case "GUILD_CREATE":
+      case "GUILD_UPDATE":
+        if (id != null) {
+          this.putGuild(id, data);
+        }
+        break;
+      case "GUILD_DELETE":
+        if (id != null) {
+          this.removeGuild(id);
+        }
+        break;
+      case "GUILD_ROLE_CREATE":
+      case "GUILD_ROLE_UPDATE":
+        JsonObject role = objectOrNull(data.get("role"));
+        if (guildId != null && role != null) {
+          this.putRole(guildId, role);
+        }
+        break;
+      case "GUILD_ROLE_DELETE":
+        String roleId = stringOrNull(data.get("role_id"));
+        if (guildId != null && roleId != null) {
+          this.removeRole(guildId, roleId);
+        }
+        break;
+      case "CHANNEL_CREATE":
+      case "CHANNEL_UPDATE":
+        if (id != null) {
+          this.channels.put(id, data);
+        }
+        break;
+      case "CHANNEL_DELETE":
+        if (id != null) {
+          this.channels.remove(id);
+        }
+        break;
+      case "GUILD_MEMBER_ADD":
+      case "GUILD_MEMBER_UPDATE":
+        if (guildId != null) {
+          this.putMember(guildId, data);
+        }
+        break;
+      case "GUILD_MEMBER_REMOVE":
+        String userId = userId(data);
+        if (guildId != null && userId != null) {
+          this.memberRoles.remove(memberKey(guildId, userId));
+        }
+        break;
+      case "MESSAGE_CREATE":
+        GatewayPayload message = GatewayPayload.of(json);
+        this.onMessageCreate(message.getGuildId(), message.getAuthor(), message.getMember());
+        break;
+    }
+  }
+
+  // messages sent in a guild carry the author's member, including their roles
+  private void onMessageCreate(String guildId, JsonObject author, JsonObject member) {
+    if (guildId != null && author != null && member != null) {
+      JsonObject withUser = member.deepCopy();
+      withUser.add("user", author);
+      this.putMember(guildId, withUser);
+    }
+  }
+
+  /**
+   * GETs {@code path}. Concurrent GETs of the same path share a single request, and responses are
+   * reused for a few seconds.
+   */
+  public String get(SmallD smalld, String path) {
+    return this.rest.get(path, smalld::get);
+  }
+
+  public JsonObject getChannel(String channelId, Supplier<JsonObject> fetch) {
+    JsonObject channel = this.channels.get(channelId);
+    if (channel == null) {
+      channel = fetch.get();
+      this.channels.putIfAbsent(channelId, channel);
+    }
+    return channel;
+  }
+
+  public Map<String, Role> getGuildRoles(String guildId, Supplier<Set<Role>> fetch) {
+    Map<String, Role> roles = this.guildRoles.get(guildId);
+    if (roles == null) {
+      roles = toRoleMap(fetch.get());
+      this.guildRoles.putIfAbsent(guildId, roles);
+    }
+    return roles;
+  }
+
+  public Set<String> getMemberRoles(String guildId, String userId, Supplier<Set<String>> fetch) {
+    String key = memberKey(guildId, userId);
+    Set<String> roles = this.memberRoles.get(key);
+    if (roles == null) {
+      roles = fetch.get();
+      this.memberRoles.putIfAbsent(key, roles);
+    }
+    return roles;
+  }
+
+  private void putGuild(String guildId, JsonObject guild) {
+    JsonArray guildRoles = arrayOrNull(guild.get("roles"));
+    if (guildRoles != null) {
+      Set<Role> roles = new HashSet<>();
+      for (JsonElement role : guildRoles) {
+        if (role.isJsonObject() && stringOrNull(role.getAsJsonObject().get("id")) != null) {
+          roles.add(gson.fromJson(role, Role.class));
+        }
+      }
+      this.guildRoles.put(guildId, toRoleMap(roles));
+    }
+
+    JsonArray channels = arrayOrNull(guild.get("channels"));
+    if (channels != null) {
+      for (JsonElement channel : channels) {
+        if (!channel.isJsonObject()) continue;
+
+        JsonObject channelObj = channel.getAsJsonObject();
+        String channelId = stringOrNull(channelObj.get("id"));
+        if (channelId == null) continue;
+
+        // channels sent with their guild leave out guild_id, which removeGuild goes by
+        channelObj.addProperty("guild_id", guildId);
+        this.channels.put(channelId, channelObj);
+      }
+    }
+
+    JsonArray members = arrayOrNull(guild.get("members"));
+    if (members != null) {
+      for (JsonElement member : members) {
+        if (member.isJsonObject()) {
+          this.putMember(guildId, member.getAsJsonObject());
+        }
+      }
+    }
+  }
+
+  private void removeGuild(String guildId) {
+    this.guildRoles.remove(guildId);
+    this.memberRoles.keySet().removeIf(key -> key.startsWith(guildId + ":"));
+    this.channels
+        .values()
+        .removeIf(channel -> guildId.equals(stringOrNull(channel.get("guild_id"))));
+  }
+
+  private void putRole(String guildId, JsonObject role) {
+    Map<String, Role> roles = this.guildRoles.get(guildId);
+    String roleId = stringOrNull(role.get("id"));
+    if (roles != null && roleId != null) {
+      roles.put(roleId, gson.fromJson(role, Role.class));
+    }
+  }
+
+  private void removeRole(String guildId, String roleId) {
+    Map<String, Role> roles = this.guildRoles.get(guildId);
+    if (roles != null) {
+      roles.remove(roleId);
+    }
+  }
+
+  private void putMember(String guildId, JsonObject member) {
+    String userId = userId(member);
+    JsonArray roles = arrayOrNull(member.get("roles"));
+    if (userId == null || roles == null) {
+      return;
+    }
+
+    Set<String> roleIds = ConcurrentHashMap.newKeySet();
+    for (JsonElement role : roles) {
+      if (role.isJsonPrimitive()) {
+        roleIds.add(role.getAsString());
+      }
+    }
+    this.memberRoles.put(memberKey(guildId, userId), roleIds);
+  }
+
+  private static String userId(JsonObject member) {
+    JsonObject user = objectOrNull(member.get("user"));
+    return user == null ? null : stringOrNull(user.get("id"));
+  }
+
+  private static JsonArray arrayOrNull(JsonElement element) {
+    return element != null && element.isJsonArray() ? element.getAsJsonArray() : null;
+  }
+
+  private static Map<String, Role> toRoleMap(Set<Role> roles) {
+    Map<String, Role> roleMap = new ConcurrentHashMap<>();
+    for (Role role : roles) {
+      roleMap.put(role.getId(), role);
+    }
+    return roleMap;
+  }
+
+  private static String memberKey(String guildId, String userId) {
+    return guildId + ":" + userId;
+  }
+}
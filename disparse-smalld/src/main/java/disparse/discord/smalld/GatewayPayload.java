@@ -0,0 +1,222 @@
+package disparse.discord.smalld;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.function.Predicate;
+
+/**
+ * A gateway payload decoded only as far as the dispatcher needs it. {@link #decode} streams over
+ * the raw payload reading {@code op} and {@code t}, and only looks inside {@code d} for {@code
+ * MESSAGE_CREATE} payloads, where it picks out the message's ids, content, author and member. The
+ * full tree is only built if {@link #getJson} is called.
+ */
+public class GatewayPayload {
+
+  public static final String MESSAGE_CREATE = "MESSAGE_CREATE";
+  public static final String MESSAGE_REACTION_ADD = "MESSAGE_REACTION_ADD";
+  public static final String MESSAGE_REACTION_REMOVE = "MESSAGE_REACTION_REMOVE";
+
+  private final String raw;
+  private final int op;
+  private final String type;
+
+  private String id;
+  private String channelId;
+  private String guildId;
+  private String content;
+  private JsonObject author;
+  private JsonObject member;
+
+  private volatile JsonObject json;
+
+  private GatewayPayload(String raw, JsonObject json, int op, String type) {
+    this.raw = raw;
+    this.json = json;
+    this.op = op;
+    this.type = type;
+  }
+
+  /**
+   * Decodes {@code raw}. The {@code d} field is skipped without being decoded unless the payload is
+   * a message, or {@code keep} accepts its type, in which case the whole payload is parsed.
+   */
+  public static GatewayPayload decode(String raw, Predicate<String> keep) {
+    try (JsonReader reader = new JsonReader(new StringReader(raw))) {
+      int op = -1;
+      String type = null;
+      boolean sawData = false;
+      GatewayPayload message = null;
+
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "op":
+            op = reader.nextInt();
+            break;
+          case "t":
+            type = nextStringOrNull(reader);
+            break;
+          case "d":
+            sawData = true;
+            if (op == 0 && MESSAGE_CREATE.equals(type)) {
+              message = new GatewayPayload(raw, null, op, type);
+              message.readMessage(reader);
+            } else {
+              reader.skipValue();
+            }
+            break;
+          default:
+            reader.skipValue();
+        }
+      }
+      reader.endObject();
+
+      if (message != null) {
+        return message;
+      }
+
+      // d came before op and t, so it has to be read again from the tree
+      boolean isMessage = op == 0 && MESSAGE_CREATE.equals(type);
+      if ((isMessage && sawData) || (type != null && keep.test(type))) {
+        return of(JsonParser.parseString(raw).getAsJsonObject());
+      }
+
+      return new GatewayPayload(raw, null, op, type);
+    } catch (IOException | IllegalStateException | NumberFormatException e) {
+      return of(JsonParser.parseString(raw).getAsJsonObject());
+    }
+  }
+
+  /** Wraps an already parsed payload. */
+  public static GatewayPayload of(JsonObject json) {
+    JsonElement opField = json.get("op");
+    int op =
+        opField != null && opField.isJsonPrimitive() && opField.getAsJsonPrimitive().isNumber()
+            ? opField.getAsInt()
+            : -1;
+
+    JsonElement tField = json.get("t");
+    String type =
+        tField != null && tField.isJsonPrimitive() && tField.getAsJsonPrimitive().isString()
+            ? tField.getAsString()
+            : null;
+
+    GatewayPayload payload = new GatewayPayload(null, json, op, type);
+    JsonElement d = json.get("d");
+    if (payload.isMessageCreate() && d != null && d.isJsonObject()) {
+      JsonObject data = d.getAsJsonObject();
+      payload.id = stringOrNull(data.get("id"));
+      payload.channelId = stringOrNull(data.get("channel_id"));
+      payload.guildId = stringOrNull(data.get("guild_id"));
+      payload.content = stringOrNull(data.get("content"));
+      payload.author = objectOrNull(data.get("author"));
+      payload.member = objectOrNull(data.get("member"));
+    }
+    return payload;
+  }
+
+  private void readMessage(JsonReader reader) throws IOException {
+    if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+      reader.skipValue();
+      return;
+    }
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "id":
+          this.id = nextStringOrNull(reader);
+          break;
+        case "channel_id":
+          this.channelId = nextStringOrNull(reader);
+          break;
+        case "guild_id":
+          this.guildId = nextStringOrNull(reader);
+          break;
+        case "content":
+          this.content = nextStringOrNull(reader);
+          break;
+        case "author":
+          this.author = objectOrNull(JsonParser.parseReader(reader));
+          break;
+        case "member":
+          this.member = objectOrNull(JsonParser.parseReader(reader));
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+  }
+
+  public int getOp() {
+    return op;
+  }
+
+  /** The {@code t} field, or {@code null} for payloads that are not dispatches. */
+  public String getType() {
+    return type;
+  }
+
+  public boolean isMessageCreate() {
+    return op == 0 && MESSAGE_CREATE.equals(type);
+  }
+
+  public String getMessageId() {
+    return id;
+  }
+
+  public String getChannelId() {
+    return channelId;
+  }
+
+  public String getGuildId() {
+    return guildId;
+  }
+
+  public String getContent() {
+    return content;
+  }
+
+  public JsonObject getAuthor() {
+    return author;
+  }
+
+  public JsonObject getMember() {
+    return member;
+  }
+
+  /** The full payload, parsed the first time it is asked for. */
+  public JsonObject getJson() {
+    JsonObject json = this.json;
+    if (json == null) {
+      json = JsonParser.parseString(this.raw).getAsJsonObject();
+      this.json = json;
+    }
+    return json;
+  }
+
+  private static String nextStringOrNull(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return null;
+    } else if (reader.peek() == JsonToken.STRING || reader.peek() == JsonToken.NUMBER) {
+      return reader.nextString();
+    }
+    reader.skipValue();
+    return null;
+  }
+
+  static String stringOrNull(JsonElement element) {
+    return element != null && element.isJsonPrimitive() ? element.getAsString() : null;
+  }
+
+  static JsonObject objectOrNull(JsonElement element) {
+    return element != null && element.isJsonObject() ? element.getAsJsonObject() : null;
+  }
+}
@@ -140,4 +140,9 @@ public class PermissionMapping implements PermissionEnumConverter<Permission> {
         return AbstractPermission.UNKNOWN;
     }
   }
+
+  @Override
+  public long bit(Permission permission) {
+    return permission.getValue();
+  }
 }
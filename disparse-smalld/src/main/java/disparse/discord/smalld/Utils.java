@@ -4,13 +4,18 @@ import com.github.princesslana.smalld.SmallD;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import disparse.discord.EventContext;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 
 public class Utils {
 
+  private static final EventContext.Key<JsonObject> CHANNEL = new EventContext.Key<>("channel");
+
   public static void sendMessage(Event event, String content) {
     SmallD smalld = event.getSmalld();
-    JsonObject json = event.getJson();
-    String channelId = getChannelId(json);
+    String channelId = getChannelId(event);
 
     JsonObject output = new JsonObject();
     output.addProperty("content", content);
@@ -20,17 +25,15 @@ public class Utils {
 
   public static void sendReact(Event event, String value) {
     SmallD smalld = event.getSmalld();
-    JsonObject json = event.getJson();
-    String channelId = getChannelId(json);
-    String messageId = getMessageId(json);
+    String channelId = getChannelId(event);
+    String messageId = required(event.getPayload().getMessageId(), "id");
 
     smalld.put("/channels/" + channelId + "/messages/" + messageId + "/reactions/:clock3:/@me", "");
   }
 
   public static void sendEmbed(Event event, JsonObject embed) {
     SmallD smalld = event.getSmalld();
-    JsonObject json = event.getJson();
-    String channelId = getChannelId(json);
+    String channelId = getChannelId(event);
 
     JsonObject output = new JsonObject();
     output.add("embed", embed);
@@ -38,6 +41,41 @@ public class Utils {
     smalld.post("/channels/" + channelId + "/messages", output.toString());
   }
 
+  /**
+   * Sends {@code embed} and reacts to it with each of {@code reactions}, returning the id of the
+   * sent message.
+   */
+  public static String sendEmbedWithReactions(Event event, JsonObject embed, String... reactions) {
+    SmallD smalld = event.getSmalld();
+    String channelId = getChannelId(event);
+
+    JsonObject output = new JsonObject();
+    output.add("embed", embed);
+
+    String sent = smalld.post("/channels/" + channelId + "/messages", output.toString());
+    String messageId = JsonParser.parseString(sent).getAsJsonObject().get("id").getAsString();
+
+    for (String reaction : reactions) {
+      String emoji = URLEncoder.encode(reaction, StandardCharsets.UTF_8);
+      smalld.put(
+          "/channels/" + channelId + "/messages/" + messageId + "/reactions/" + emoji + "/@me", "");
+    }
+
+    return messageId;
+  }
+
+  public static void editEmbed(
+      SmallD smalld, String channelId, String messageId, JsonObject embed) {
+    JsonObject output = new JsonObject();
+    output.add("embed", embed);
+
+    smalld.patch("/channels/" + channelId + "/messages/" + messageId, output.toString());
+  }
+
+  public static String getChannelId(Event event) {
+    return required(event.getPayload().getChannelId(), "channel_id");
+  }
+
   public static String getChannelId(JsonObject json) {
     return json.get("d").getAsJsonObject().get("channel_id").getAsString();
   }
@@ -47,18 +85,13 @@ public class Utils {
   }
 
   public static boolean isTextChannel(Event event) {
-    String channelId = getChannelId(event.getJson());
-
-    JsonObject channelObj = Utils.getChannel(event, channelId);
+    JsonObject channelObj = getChannel(event);
 
     return channelObj.get("type").getAsInt() == 0;
   }
 
   public static boolean isDm(Event event) {
-    String channelId = getChannelId(event.getJson());
-
-    JsonObject channelObj =
-        new Gson().fromJson(event.getSmalld().get("/channels/" + channelId), JsonObject.class);
+    JsonObject channelObj = getChannel(event);
 
     return channelObj.get("type").getAsInt() == 1 || channelObj.get("type").getAsInt() == 3;
   }
@@ -81,6 +114,10 @@ public class Utils {
     return op && isMessageCreate;
   }
 
+  public static String getMessageContent(Event event) {
+    return required(event.getPayload().getContent(), "content");
+  }
+
   public static String getMessageContent(JsonObject json) {
     return json.get("d").getAsJsonObject().get("content").getAsString();
   }
@@ -89,8 +126,15 @@ public class Utils {
     return json.get("d").getAsJsonObject().get("author").getAsJsonObject();
   }
 
+  public static boolean isAuthorBot(Event event) {
+    return isBot(required(event.getPayload().getAuthor(), "author"));
+  }
+
   public static boolean isAuthorBot(JsonObject json) {
-    JsonObject author = getAuthor(json);
+    return isBot(getAuthor(json));
+  }
+
+  private static boolean isBot(JsonObject author) {
     boolean isBot = false;
     JsonElement element = author.get("bot");
 
@@ -102,11 +146,43 @@ public class Utils {
   }
 
   public static String getAuthorId(Event event) {
-    JsonObject author = getAuthor(event.getJson());
-    return author.get("id").getAsString();
+    return required(event.getPayload().getAuthor(), "author").get("id").getAsString();
+  }
+
+  /**
+   * Returns {@code value}, a field of the event's message, or throws if the message did not have
+   * it, as reading the field from the parsed payload would.
+   */
+  public static <V> V required(V value, String field) {
+    if (value == null) {
+      throw new IllegalStateException("Message has no `" + field + "` field");
+    }
+    return value;
+  }
+
+  /** The channel the event's message was sent in, looked up once per event. */
+  public static JsonObject getChannel(Event event) {
+    return event.getContext().get(CHANNEL, () -> getChannel(event, getChannelId(event)));
   }
 
   public static JsonObject getChannel(Event event, String channelId) {
-    return new Gson().fromJson(event.getSmalld().get("/channels/" + channelId), JsonObject.class);
+    if (event.getCache() != null) {
+      return event.getCache().getChannel(channelId, () -> fetchChannel(event, channelId));
+    }
+
+    return fetchChannel(event, channelId);
+  }
+
+  /** GETs {@code path}, going through the event's cache when it has one. */
+  public static String get(Event event, String path) {
+    if (event.getCache() != null) {
+      return event.getCache().get(event.getSmalld(), path);
+    }
+
+    return event.getSmalld().get(path);
+  }
+
+  private static JsonObject fetchChannel(Event event, String channelId) {
+    return new Gson().fromJson(get(event, "/channels/" + channelId), JsonObject.class);
   }
 }
@@ -5,38 +5,89 @@ import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
+import disparse.discord.EventContext;
 import disparse.discord.smalld.Event;
+import disparse.discord.smalld.GatewayCache;
+import disparse.discord.smalld.Utils;
 import java.lang.reflect.Type;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 public class Guilds {
 
+  private static final EventContext.Key<Set<Role>> AUTHOR_ROLES =
+      new EventContext.Key<>("author roles");
+
   public static JsonObject getGuildMember(SmallD smalld, String guildId, String userId) {
-    return JsonParser.parseString(smalld.get("/guilds/" + guildId + "/members/" + userId))
-        .getAsJsonObject();
+    return getGuildMember(smalld::get, guildId, userId);
   }
 
   public static Set<String> getSnowflakeRolesForGuildMember(
       SmallD smalld, String guildId, String userId) {
-    JsonObject guildMember = getGuildMember(smalld, guildId, userId);
+    return getSnowflakeRolesForGuildMember(smalld::get, guildId, userId);
+  }
+
+  public static Set<Role> getGuildRoles(SmallD smalld, String guildId) {
+    return getGuildRoles(smalld::get, guildId);
+  }
+
+  private static JsonObject getGuildMember(
+      Function<String, String> get, String guildId, String userId) {
+    return JsonParser.parseString(get.apply("/guilds/" + guildId + "/members/" + userId))
+        .getAsJsonObject();
+  }
+
+  private static Set<String> getSnowflakeRolesForGuildMember(
+      Function<String, String> get, String guildId, String userId) {
+    JsonObject guildMember = getGuildMember(get, guildId, userId);
     Type type = new TypeToken<HashSet<String>>() {}.getType();
     return new Gson().fromJson(guildMember.get("roles"), type);
   }
 
-  public static Set<Role> getGuildRoles(SmallD smalld, String guildId) {
+  private static Set<Role> getGuildRoles(Function<String, String> get, String guildId) {
     Type type = new TypeToken<HashSet<Role>>() {}.getType();
-    return new Gson().fromJson(smalld.get("/guilds/" + guildId + "/roles"), type);
+    return new Gson().fromJson(get.apply("/guilds/" + guildId + "/roles"), type);
   }
 
+  /** The guild the message was sent in. Throws for direct messages, which have none. */
   public static String getGuildId(Event event) {
-    return event.getJson().get("d").getAsJsonObject().get("guild_id").getAsString();
+    return Utils.required(event.getPayload().getGuildId(), "guild_id");
+  }
+
+  /** The roles of the event's author, looked up once per event. */
+  public static Set<Role> getRolesForAuthor(Event event) {
+    return event
+        .getContext()
+        .get(AUTHOR_ROLES, () -> getRolesForGuildMember(event, Utils.getAuthorId(event)));
   }
 
   public static Set<Role> getRolesForGuildMember(Event event, String userId) {
     String guildId = getGuildId(event);
-    Set<String> snowflakes = getSnowflakeRolesForGuildMember(event.getSmalld(), guildId, userId);
-    Set<Role> guildRoles = getGuildRoles(event.getSmalld(), guildId);
+    SmallD smalld = event.getSmalld();
+    GatewayCache cache = event.getCache();
+
+    if (cache != null) {
+      Function<String, String> get = path -> cache.get(smalld, path);
+      Set<String> snowflakes =
+          cache.getMemberRoles(
+              guildId, userId, () -> getSnowflakeRolesForGuildMember(get, guildId, userId));
+      Map<String, Role> guildRoles =
+          cache.getGuildRoles(guildId, () -> getGuildRoles(get, guildId));
+
+      Set<Role> roles = new HashSet<>();
+      for (String snowflake : snowflakes) {
+        Role role = guildRoles.get(snowflake);
+        if (role != null) {
+          roles.add(role);
+        }
+      }
+      return roles;
+    }
+
+    Set<String> snowflakes = getSnowflakeRolesForGuildMember(smalld, guildId, userId);
+    Set<Role> guildRoles = getGuildRoles(smalld, guildId);
     guildRoles.removeIf(role -> !snowflakes.contains(role.getId()));
     return guildRoles;
   }
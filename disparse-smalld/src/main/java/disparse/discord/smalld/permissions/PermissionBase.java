@@ -23,6 +23,13 @@ public class PermissionBase {
     return (this.value & permission.getValue()) == permission.getValue();
   }
 
+  /** Whether any of the permissions in {@code mask} are contained, as with {@link #contains}. */
+  public boolean containsAny(long mask) {
+    if (this.value == Permission.ADMINISTRATOR.getValue()) return true;
+
+    return (this.value & mask) != 0;
+  }
+
   public long getValue() {
     return value;
   }
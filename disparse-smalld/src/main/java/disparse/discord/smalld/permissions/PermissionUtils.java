@@ -3,6 +3,7 @@ package disparse.discord.smalld.permissions;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
+import disparse.discord.EventContext;
 import disparse.discord.smalld.Event;
 import disparse.discord.smalld.Utils;
 import disparse.discord.smalld.guilds.Guilds;
@@ -15,10 +16,12 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class PermissionUtils {
-  public static PermissionBase computeBasePermissions(Event event) {
-    String userId = Utils.getAuthorId(event);
 
-    return Guilds.getRolesForGuildMember(event, userId).stream()
+  private static final EventContext.Key<PermissionBase> ALL_PERMS =
+      new EventContext.Key<>("permissions");
+
+  public static PermissionBase computeBasePermissions(Event event) {
+    return Guilds.getRolesForAuthor(event).stream()
         .map(r -> new PermissionBase(r.getPermissions()))
         .reduce(new PermissionBase(0L), PermissionBase::plus);
   }
@@ -32,10 +35,9 @@ public class PermissionUtils {
       return PermissionBase.of(Permission.ADMINISTRATOR);
     }
 
-    String channelId = Utils.getChannelId(event.getJson());
     String guildId = Guilds.getGuildId(event);
     String userId = Utils.getAuthorId(event);
-    JsonObject channelObj = Utils.getChannel(event, channelId);
+    JsonObject channelObj = Utils.getChannel(event);
     long perms = permissionBase.getValue();
 
     Type type = new TypeToken<List<Overwrite>>() {}.getType();
@@ -55,7 +57,7 @@ public class PermissionUtils {
     AtomicLong allow = new AtomicLong();
     AtomicLong deny = new AtomicLong();
 
-    Guilds.getRolesForGuildMember(event, userId).stream()
+    Guilds.getRolesForAuthor(event).stream()
         .map(r -> r.getId())
         .map(i -> overwriteMap.getOrDefault(i, null))
         .filter(Objects::nonNull)
@@ -78,9 +80,16 @@ public class PermissionUtils {
     return new PermissionBase(perms);
   }
 
+  /** The author's permissions in the event's channel, worked out once per event. */
   public static PermissionBase computeAllPerms(Event event) {
-    PermissionBase base = computeBasePermissions(event);
-    return computeOverwrites(base, event);
+    return event
+        .getContext()
+        .get(
+            ALL_PERMS,
+            () -> {
+              PermissionBase base = computeBasePermissions(event);
+              return computeOverwrites(base, event);
+            });
   }
 
   public static class Overwrite {
@@ -0,0 +1,146 @@
+package disparse.discord.smalld;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import disparse.discord.smalld.guilds.Role;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GatewayCacheTest {
+
+  private static final String GUILD =
+      "{\"id\":\"1\",\"roles\":[{\"id\":\"10\",\"name\":\"admin\",\"permissions\":8}],"
+          + "\"channels\":[{\"id\":\"20\",\"type\":0}],"
+          + "\"members\":[{\"user\":{\"id\":\"30\"},\"roles\":[\"10\"]}]}";
+
+  @Test
+  public void testGuildCreateIsCached() {
+    GatewayCache cache = new GatewayCache();
+    cache.onGatewayPayload(dispatch("GUILD_CREATE", GUILD));
+
+    Map<String, Role> roles = cache.getGuildRoles("1", notFetched());
+    Assertions.assertEquals(Set.of("10"), roles.keySet());
+    Assertions.assertEquals("admin", roles.get("10").getName());
+
+    JsonObject channel = cache.getChannel("20", notFetched());
+    Assertions.assertEquals("1", channel.get("guild_id").getAsString());
+
+    Assertions.assertEquals(Set.of("10"), cache.getMemberRoles("1", "30", notFetched()));
+  }
+
+  @Test
+  public void testGuildDeleteRemovesItsChannelsAndMembers() {
+    GatewayCache cache = new GatewayCache();
+    cache.onGatewayPayload(dispatch("GUILD_CREATE", GUILD));
+    cache.onGatewayPayload(dispatch("CHANNEL_CREATE", "{\"id\":\"21\",\"guild_id\":\"2\"}"));
+    cache.onGatewayPayload(dispatch("GUILD_DELETE", "{\"id\":\"1\"}"));
+
+    Assertions.assertEquals(Map.of(), cache.getGuildRoles("1", Set::of));
+    Assertions.assertEquals(Set.of(), cache.getMemberRoles("1", "30", Set::of));
+    JsonObject fetched = new JsonObject();
+    Assertions.assertSame(fetched, cache.getChannel("20", () -> fetched));
+    Assertions.assertEquals(
+        "2", cache.getChannel("21", notFetched()).get("guild_id").getAsString());
+  }
+
+  @Test
+  public void testRolesAreUpdatedAndRemoved() {
+    GatewayCache cache = new GatewayCache();
+    cache.onGatewayPayload(dispatch("GUILD_CREATE", GUILD));
+    cache.onGatewayPayload(
+        dispatch(
+            "GUILD_ROLE_CREATE",
+            "{\"guild_id\":\"1\",\"role\":{\"id\":\"11\",\"name\":\"mod\",\"permissions\":0}}"));
+    cache.onGatewayPayload(
+        dispatch("GUILD_ROLE_DELETE", "{\"guild_id\":\"1\",\"role_id\":\"10\"}"));
+
+    Map<String, Role> roles = cache.getGuildRoles("1", notFetched());
+    Assertions.assertEquals(Set.of("11"), roles.keySet());
+    Assertions.assertEquals("mod", roles.get("11").getName());
+  }
+
+  @Test
+  public void testRoleOfAnUnknownGuildIsIgnored() {
+    GatewayCache cache = new GatewayCache();
+    cache.onGatewayPayload(
+        dispatch(
+            "GUILD_ROLE_CREATE",
+            "{\"guild_id\":\"2\",\"role\":{\"id\":\"11\",\"name\":\"mod\",\"permissions\":0}}"));
+
+    Assertions.assertEquals(Map.of(), cache.getGuildRoles("2", Set::of));
+  }
+
+  @Test
+  public void testMembersAreUpdatedAndRemoved() {
+    GatewayCache cache = new GatewayCache();
+    cache.onGatewayPayload(
+        dispatch(
+            "GUILD_MEMBER_UPDATE",
+            "{\"guild_id\":\"1\",\"user\":{\"id\":\"30\"},\"roles\":[\"10\",\"11\"]}"));
+    Assertions.assertEquals(Set.of("10", "11"), cache.getMemberRoles("1", "30", notFetched()));
+
+    cache.onGatewayPayload(
+        dispatch("GUILD_MEMBER_REMOVE", "{\"guild_id\":\"1\",\"user\":{\"id\":\"30\"}}"));
+    Assertions.assertEquals(Set.of(), cache.getMemberRoles("1", "30", Set::of));
+  }
+
+  @Test
+  public void testMessageCreateMergesTheAuthorIntoTheirMember() {
+    GatewayCache cache = new GatewayCache();
+    String message =
+        "{\"op\":0,\"t\":\"MESSAGE_CREATE\",\"d\":{\"id\":\"40\",\"channel_id\":\"20\","
+            + "\"guild_id\":\"1\",\"content\":\"!ping\",\"author\":{\"id\":\"30\"},"
+            + "\"member\":{\"roles\":[\"10\"]}}}";
+
+    cache.onGatewayPayload(GatewayPayload.decode(message, GatewayCache::tracks));
+    Assertions.assertEquals(Set.of("10"), cache.getMemberRoles("1", "30", notFetched()));
+
+    cache.onGatewayPayload(dispatch("GUILD_DELETE", "{\"id\":\"1\"}"));
+    cache.onGatewayPayload(JsonParser.parseString(message).getAsJsonObject());
+    Assertions.assertEquals(Set.of("10"), cache.getMemberRoles("1", "30", notFetched()));
+  }
+
+  @Test
+  public void testMalformedPayloadsAreIgnored() {
+    GatewayCache cache = new GatewayCache();
+    cache.onGatewayPayload(dispatch("GUILD_CREATE", GUILD));
+
+    String[][] payloads = {
+      {"GUILD_CREATE", "{\"roles\":[]}"},
+      {"GUILD_CREATE", "{\"id\":\"2\",\"roles\":{},\"channels\":[1,{}],\"members\":[{}]}"},
+      {"GUILD_DELETE", "{\"id\":null}"},
+      {"GUILD_ROLE_CREATE", "{\"role\":{\"id\":\"11\"}}"},
+      {"GUILD_ROLE_UPDATE", "{\"guild_id\":\"1\"}"},
+      {"GUILD_ROLE_UPDATE", "{\"guild_id\":\"1\",\"role\":{\"name\":\"mod\"}}"},
+      {"GUILD_ROLE_DELETE", "{\"guild_id\":\"1\"}"},
+      {"CHANNEL_CREATE", "{\"type\":0}"},
+      {"CHANNEL_DELETE", "{}"},
+      {"GUILD_MEMBER_ADD", "{\"user\":{\"id\":\"30\"},\"roles\":[]}"},
+      {"GUILD_MEMBER_UPDATE", "{\"guild_id\":\"1\",\"user\":{},\"roles\":[]}"},
+      {"GUILD_MEMBER_REMOVE", "{\"guild_id\":\"1\"}"},
+      {"GUILD_MEMBER_REMOVE", "{\"guild_id\":\"1\",\"user\":\"30\"}"},
+      {"MESSAGE_CREATE", "{\"guild_id\":\"1\",\"member\":{\"roles\":[]}}"},
+    };
+    // none of these may throw
+    for (String[] payload : payloads) {
+      cache.onGatewayPayload(dispatch(payload[0], payload[1]));
+    }
+    cache.onGatewayPayload(JsonParser.parseString("{\"op\":0,\"t\":{}}").getAsJsonObject());
+
+    Assertions.assertEquals(Set.of("10"), cache.getGuildRoles("1", notFetched()).keySet());
+    Assertions.assertNotNull(cache.getChannel("20", notFetched()));
+    Assertions.assertEquals(Set.of("10"), cache.getMemberRoles("1", "30", notFetched()));
+  }
+
+  private static JsonObject dispatch(String type, String data) {
+    return JsonParser.parseString("{\"op\":0,\"t\":\"" + type + "\",\"d\":" + data + "}")
+        .getAsJsonObject();
+  }
+
+  private static <T> Supplier<T> notFetched() {
+    return () -> Assertions.fail("the cache should not have fallen back to REST");
+  }
+}
@@ -0,0 +1,92 @@
+package disparse.discord.smalld;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GatewayPayloadTest {
+
+  private static final String MESSAGE =
+      "{\"id\":\"1\",\"channel_id\":\"2\",\"guild_id\":\"3\",\"content\":\"!ping\","
+          + "\"author\":{\"id\":\"4\"},\"member\":{\"roles\":[\"5\"]}}";
+
+  @Test
+  public void testMessageIsDecoded() {
+    GatewayPayload payload =
+        GatewayPayload.decode(
+            "{\"op\":0,\"t\":\"MESSAGE_CREATE\",\"s\":1,\"d\":" + MESSAGE + "}", type -> false);
+
+    assertMessage(payload);
+  }
+
+  @Test
+  public void testMessageIsDecodedWhenDataComesFirst() {
+    GatewayPayload payload =
+        GatewayPayload.decode(
+            "{\"d\":" + MESSAGE + ",\"s\":1,\"t\":\"MESSAGE_CREATE\",\"op\":0}", type -> false);
+
+    assertMessage(payload);
+  }
+
+  @Test
+  public void testMessageWithoutMemberIsDecoded() {
+    GatewayPayload payload =
+        GatewayPayload.decode(
+            "{\"op\":0,\"t\":\"MESSAGE_CREATE\",\"d\":{\"id\":\"1\",\"channel_id\":\"2\","
+                + "\"content\":\"!ping\",\"author\":{\"id\":\"4\"}}}",
+            type -> false);
+
+    Assertions.assertTrue(payload.isMessageCreate());
+    Assertions.assertEquals("2", payload.getChannelId());
+    Assertions.assertEquals("4", payload.getAuthor().get("id").getAsString());
+    Assertions.assertNull(payload.getGuildId());
+    Assertions.assertNull(payload.getMember());
+  }
+
+  @Test
+  public void testNullTypeIsNotADispatch() {
+    GatewayPayload payload =
+        GatewayPayload.decode("{\"op\":11,\"t\":null,\"d\":null}", type -> true);
+
+    Assertions.assertEquals(11, payload.getOp());
+    Assertions.assertNull(payload.getType());
+    Assertions.assertFalse(payload.isMessageCreate());
+  }
+
+  @Test
+  public void testMessageWithNonObjectDataHasNoFields() {
+    String raw = "{\"op\":0,\"t\":\"MESSAGE_CREATE\",\"d\":[1,2]}";
+
+    for (GatewayPayload payload :
+        new GatewayPayload[] {
+          GatewayPayload.decode(raw, type -> false),
+          GatewayPayload.decode("{\"d\":[1,2],\"t\":\"MESSAGE_CREATE\",\"op\":0}", type -> false)
+        }) {
+      Assertions.assertTrue(payload.isMessageCreate());
+      Assertions.assertNull(payload.getMessageId());
+      Assertions.assertNull(payload.getContent());
+      Assertions.assertNull(payload.getAuthor());
+    }
+  }
+
+  @Test
+  public void testSkippedDataIsParsedOnDemand() {
+    GatewayPayload payload =
+        GatewayPayload.decode(
+            "{\"op\":0,\"t\":\"TYPING_START\",\"d\":{\"channel_id\":\"2\"}}", type -> false);
+
+    Assertions.assertEquals("TYPING_START", payload.getType());
+    Assertions.assertNull(payload.getChannelId());
+    Assertions.assertEquals(
+        "2", payload.getJson().getAsJsonObject("d").get("channel_id").getAsString());
+  }
+
+  private static void assertMessage(GatewayPayload payload) {
+    Assertions.assertTrue(payload.isMessageCreate());
+    Assertions.assertEquals("1", payload.getMessageId());
+    Assertions.assertEquals("2", payload.getChannelId());
+    Assertions.assertEquals("3", payload.getGuildId());
+    Assertions.assertEquals("!ping", payload.getContent());
+    Assertions.assertEquals("4", payload.getAuthor().get("id").getAsString());
+    Assertions.assertEquals("5", payload.getMember().getAsJsonArray("roles").get(0).getAsString());
+  }
+}